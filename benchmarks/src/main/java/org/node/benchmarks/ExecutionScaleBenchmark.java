@@ -0,0 +1,52 @@
+package org.node.benchmarks;
+
+import org.node.model.ExecutionPlan;
+import org.node.model.Graph;
+import org.node.model.GraphExecutor;
+import org.node.model.GraphSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Planning and interpreting graphs past the size GraphCompiler can emit as one class,
+// see GraphExecutionBenchmark for the compiled comparison.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ExecutionScaleBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private GraphSnapshot snapshot;
+    private GraphExecutor interpreter;
+
+    @Setup
+    public void setup() {
+        Graph graph = SyntheticGraphs.additionChain(size);
+        snapshot = graph.snapshot();
+        interpreter = new GraphExecutor(ExecutionPlan.build(snapshot));
+    }
+
+    @Benchmark
+    public ExecutionPlan plan() {
+        return ExecutionPlan.build(snapshot);
+    }
+
+    @Benchmark
+    public Object[] interpreted() {
+        return interpreter.run();
+    }
+}
@@ -0,0 +1,54 @@
+package org.node.benchmarks;
+
+import org.node.model.CompiledGraph;
+import org.node.model.Graph;
+import org.node.model.GraphCompiler;
+import org.node.model.GraphExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphExecutionBenchmark {
+    @Param({"1000", "5000"})
+    public int size;
+
+    private GraphExecutor interpreter;
+    private CompiledGraph compiled;
+
+    @Setup
+    public void setup() {
+        Graph graph = SyntheticGraphs.additionChain(size);
+        interpreter = new GraphExecutor(graph);
+        compiled = GraphCompiler.compile(graph);
+        if (!Arrays.equals(interpreter.run(), compiled.run())) {
+            throw new IllegalStateException("Compiled graph disagrees with the interpreter");
+        }
+    }
+
+    @Benchmark
+    public Object[] interpreted() {
+        return interpreter.run();
+    }
+
+    @Benchmark
+    public Object[] compiled() {
+        return compiled.run();
+    }
+}
@@ -0,0 +1,43 @@
+package org.node.benchmarks;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Starts the FX toolkit and runs work on the application thread. View benchmarks
+// fork with -Dglass.platform=Monocle -Dmonocle.platform=Headless so no display is needed.
+public final class HeadlessFx {
+    private static boolean started;
+
+    private HeadlessFx() {
+    }
+
+    public static synchronized void start() throws InterruptedException {
+        if (started) return;
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        Platform.startup(() -> ready.complete(null));
+        Platform.setImplicitExit(false);
+        try {
+            ready.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("FX toolkit did not start", e);
+        }
+        started = true;
+    }
+
+    public static <T> T call(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(work.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result.join();
+    }
+}
@@ -0,0 +1,88 @@
+package org.node.benchmarks;
+
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import org.node.model.Node;
+import org.node.view.NodeView;
+import org.node.view.NodeViewPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost per node of showing a view (CSS and layout included) and taking it down again,
+// fresh versus recycled. Views are batched per hop onto the FX thread.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw"})
+public class NodeViewBenchmark {
+    private static final int BATCH = 100;
+
+    @Param({"4", "40"})
+    public int pins;
+
+    private Node node;
+    private Pane root;
+    private NodeViewPool pool;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        HeadlessFx.start();
+        node = SyntheticGraphs.wideNode(pins);
+        pool = new NodeViewPool(BATCH, view -> { });
+        root = HeadlessFx.call(() -> {
+            Pane pane = new Pane();
+            Scene scene = new Scene(pane, 800, 600);
+            scene.getStylesheets().add(NodeView.class.getResource("/styles.css").toExternalForm());
+            return pane;
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int createAndDestroy() {
+        return HeadlessFx.call(() -> {
+            for (int i = 0; i < BATCH; i++) {
+                show(new NodeView(node));
+            }
+            int shown = root.getChildren().size();
+            root.getChildren().clear();
+            return shown;
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int pooled() {
+        return HeadlessFx.call(() -> {
+            for (int i = 0; i < BATCH; i++) {
+                show(pool.acquire(node));
+            }
+            int shown = root.getChildren().size();
+            for (javafx.scene.Node view : root.getChildren()) {
+                pool.release((NodeView) view);
+            }
+            root.getChildren().clear();
+            return shown;
+        });
+    }
+
+    private void show(NodeView view) {
+        root.getChildren().add(view);
+        view.applyCss();
+        view.layout();
+    }
+}
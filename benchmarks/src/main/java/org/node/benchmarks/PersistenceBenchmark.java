@@ -0,0 +1,136 @@
+package org.node.benchmarks;
+
+import org.node.model.GraphFile;
+import org.node.model.GraphStore;
+import org.node.model.Node;
+import org.node.model.Pin;
+import org.node.model.Project;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Saving and loading a project graph in the binary format, and the JSON interchange
+// path, on synthetic graphs of 1k to 1M nodes with five pins each. Every size is
+// written once in setup so the load side always reads a complete file, and read back
+// once to check that it loads as the graph that was saved.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class PersistenceBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path directory;
+    private Project project;
+    private GraphStore graph;
+    private Path json;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("jeditor-bench");
+        project = Project.createNew(directory.toString());
+        graph = SyntheticGraphs.additionStore(size);
+        project.saveGraph(graph);
+        checkRoundTrip(graph, project.loadGraph());
+        checkRoundTrip(movedPins(), directory.resolve("moved.jegf"));
+        json = directory.resolve("graph.json");
+        Project.exportGraph(graph, json);
+    }
+
+    // A pin added to an earlier node moves that node's pins to new ids, leaving unused ids behind
+    private static GraphStore movedPins() {
+        GraphStore store = new GraphStore();
+        int first = store.addNode("A", Node.NodeType.FUNCTION, 0, 0, null);
+        store.addPin(first, Pin.PinType.NUMBER, "out", "out", false);
+        int second = store.addNode("B", Node.NodeType.FUNCTION, 250, 0, null);
+        int input = store.addPin(second, Pin.PinType.NUMBER, "in", "in", true);
+        int label = store.addPin(second, Pin.PinType.STRING, "label", "label", true);
+        int extra = store.addPin(first, Pin.PinType.NUMBER, "extra", "extra", true);
+        store.connect(store.getFirstPin(first), input);
+        store.setDefaultValue(label, "b");
+        store.setDefaultValue(extra, 2L);
+        return store;
+    }
+
+    private static void checkRoundTrip(GraphStore saved, Path file) throws IOException {
+        GraphFile.write(saved, file);
+        checkRoundTrip(saved, GraphFile.open(file).toStore());
+    }
+
+    // Same node pin ranges, pins, wires and default values under the same ids
+    private static void checkRoundTrip(GraphStore saved, GraphStore loaded) {
+        boolean same = saved.getNodeCapacity() == loaded.getNodeCapacity() && saved.getPinCount() == loaded.getPinCount()
+            && saved.getEdgeCount() == loaded.getEdgeCount();
+        for (int node = 0; same && node < saved.getNodeCapacity(); node++) {
+            same = saved.getFirstPin(node) == loaded.getFirstPin(node) && saved.getPinCount(node) == loaded.getPinCount(node)
+                && saved.isRemoved(node) == loaded.isRemoved(node);
+        }
+        for (int pin = 0; same && pin < saved.getPinCount(); pin++) {
+            int wire = saved.getIncoming(pin);
+            int loadedWire = loaded.getIncoming(pin);
+            same = saved.getPinNode(pin) == loaded.getPinNode(pin) && saved.getPinType(pin) == loaded.getPinType(pin)
+                && saved.isInput(pin) == loaded.isInput(pin)
+                && Objects.equals(saved.getDefaultValue(pin), loaded.getDefaultValue(pin))
+                && (wire < 0 ? loadedWire < 0 : loadedWire >= 0 && saved.getEdgeSource(wire) == loaded.getEdgeSource(loadedWire));
+        }
+        if (!same) {
+            throw new IllegalStateException("Saved graph loads back differently");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Path save() throws IOException {
+        project.saveGraph(graph);
+        return project.getGraphPath();
+    }
+
+    // Maps the file and reads the header; sections decode on first use
+    @Benchmark
+    public GraphFile open() throws IOException {
+        return project.openGraph();
+    }
+
+    @Benchmark
+    public GraphStore load() throws IOException {
+        return project.loadGraph();
+    }
+
+    @Benchmark
+    public Path exportJson() throws IOException {
+        Project.exportGraph(graph, json);
+        return json;
+    }
+
+    @Benchmark
+    public GraphStore importJson() throws IOException {
+        return Project.importGraph(json);
+    }
+}
@@ -0,0 +1,58 @@
+package org.node.benchmarks;
+
+import javafx.geometry.Point2D;
+import org.node.model.ClassScanner;
+import org.node.model.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// What the palette pays to list a class's methods and to turn each one into a node.
+// Node creation reuses the cached template, so it measures the per-node cost only.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScannerBenchmark {
+    @Param({"java.util.ArrayList", "java.util.HashMap", "java.lang.String"})
+    public String className;
+
+    private Class<?> type;
+    private List<Method> methods;
+    private final Point2D position = new Point2D(0, 0);
+
+    @Setup
+    public void setup() throws ClassNotFoundException {
+        type = Class.forName(className);
+        methods = ClassScanner.getRelevantMethods(type);
+    }
+
+    @Benchmark
+    public List<Method> relevantMethods() {
+        return ClassScanner.getRelevantMethods(type);
+    }
+
+    // One node per relevant method of the class
+    @Benchmark
+    public void createMethodNodes(Blackhole blackhole) {
+        for (Method method : methods) {
+            Node node = ClassScanner.createMethodNode(method, position);
+            blackhole.consume(node);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.node.benchmarks;
+
+import javafx.geometry.Point2D;
+import org.node.model.ClassScanner;
+import org.node.model.Graph;
+import org.node.model.GraphStore;
+import org.node.model.Node;
+import org.node.model.NodeTemplate;
+import org.node.model.Pin;
+import org.node.model.PinTemplate;
+
+import java.lang.reflect.Method;
+
+public final class SyntheticGraphs {
+    private SyntheticGraphs() {
+    }
+
+    // Exec chain of Math.addExact nodes, each adding one to the previous result
+    public static Graph additionChain(int size) {
+        Method addExact = addExact();
+        Graph graph = new Graph();
+        Node previous = null;
+        for (int i = 0; i < size; i++) {
+            Node node = ClassScanner.createMethodNode(addExact, new Point2D(i * 250.0, 0));
+            graph.addNode(node);
+            graph.setDefaultValue(node.getInputPins().get(2), 1L);
+            if (previous == null) {
+                graph.setDefaultValue(node.getInputPins().get(1), 0L);
+            } else {
+                graph.connect(previous.getOutputPins().get(0), node.getInputPins().get(0));
+                graph.connect(previous.getOutputPins().get(1), node.getInputPins().get(1));
+            }
+            previous = node;
+        }
+        return graph;
+    }
+
+    // additionChain's layout written straight into a store, laid out on a square grid;
+    // the size persistence benchmarks need would not fit as objects
+    public static GraphStore additionStore(int size) {
+        NodeTemplate template = NodeTemplate.of(addExact());
+        int columns = (int) Math.ceil(Math.sqrt(size));
+        GraphStore store = new GraphStore();
+        int previous = -1;
+        for (int i = 0; i < size; i++) {
+            int node = store.addNode(template.getTitle(), template.getType(),
+                (i % columns) * 250.0, (i / columns) * 150.0, template.getExecutable());
+            int first = -1;
+            for (PinTemplate pin : template.getInputs()) {
+                int id = store.addPin(node, pin.getType(), pin.getId(), pin.getLabel(), true);
+                if (first < 0) first = id;
+            }
+            for (PinTemplate pin : template.getOutputs()) {
+                store.addPin(node, pin.getType(), pin.getId(), pin.getLabel(), false);
+            }
+            // Inputs exec, a, b then outputs exec, return
+            store.setDefaultValue(first + 2, 1L);
+            if (previous < 0) {
+                store.setDefaultValue(first + 1, 0L);
+            } else {
+                store.connect(previous + 3, first);
+                store.connect(previous + 4, first + 1);
+            }
+            previous = first;
+        }
+        return store;
+    }
+
+    private static Method addExact() {
+        try {
+            return Math.class.getMethod("addExact", long.class, long.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Single node with an exec pin and the given number of data pins on each side
+    public static Node wideNode(int dataPins) {
+        Node node = new Node("Wide" + dataPins, Node.NodeType.FUNCTION, new Point2D(0, 0));
+        node.addInputPin(new Pin("exec_in", Pin.PinType.FLOW, "", true));
+        node.addOutputPin(new Pin("exec_out", Pin.PinType.FLOW, "", false));
+        for (int i = 0; i < dataPins; i++) {
+            node.addInputPin(new Pin("in" + i, Pin.PinType.NUMBER, "in" + i, true));
+            node.addOutputPin(new Pin("out" + i, Pin.PinType.OBJECT, "out" + i, false));
+        }
+        return node;
+    }
+}
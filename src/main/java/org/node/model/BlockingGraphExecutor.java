@@ -0,0 +1,193 @@
+package org.node.model;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs many instances of a graph whose nodes block (I/O, sleeps, queue takes).
+// Every run, or every node, gets its own thread: virtual when the runtime has them,
+// pooled platform threads otherwise. A semaphore caps how many runs are in flight.
+public class BlockingGraphExecutor implements AutoCloseable {
+    public enum Mode {
+        PER_RUN,    // Each run interprets the plan on its own thread
+        PER_NODE    // Each node gets its own thread, independent branches block in parallel
+    }
+
+    private final ExecutionPlan plan;
+    private final Mode mode;
+    private final ExecutorService runThreads;
+    private final ExecutorService nodeThreads;
+    private final boolean virtual;
+    private final Semaphore permits;
+    private final int maxConcurrentRuns;
+    private final GraphExecutor interpreter;
+    private final ParallelGraphExecutor scheduler;
+
+    private final Set<Thread> workers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger queuedRuns = new AtomicInteger();
+    private final AtomicInteger activeRuns = new AtomicInteger();
+    private final AtomicLong completedRuns = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
+
+    public BlockingGraphExecutor(ExecutionPlan plan, Mode mode, int maxConcurrentRuns) {
+        if (maxConcurrentRuns <= 0) {
+            throw new IllegalArgumentException("maxConcurrentRuns must be positive: " + maxConcurrentRuns);
+        }
+        this.plan = plan;
+        this.mode = mode;
+        this.maxConcurrentRuns = maxConcurrentRuns;
+        this.permits = new Semaphore(maxConcurrentRuns);
+
+        ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+        this.virtual = virtualThreads != null;
+        if (virtual) {
+            this.runThreads = virtualThreads;
+            this.nodeThreads = virtualThreads;
+        } else {
+            // Without virtual threads, queue runs on a fixed pool instead of parking a thread per run
+            this.runThreads = Executors.newFixedThreadPool(maxConcurrentRuns, BlockingGraphExecutor::newDaemonThread);
+            this.nodeThreads = Executors.newCachedThreadPool(BlockingGraphExecutor::newDaemonThread);
+        }
+
+        this.interpreter = new GraphExecutor(plan);
+        Executor tracked = task -> nodeThreads.execute(() -> track(task));
+        this.scheduler = new ParallelGraphExecutor(plan, tracked);
+    }
+
+    // Looked up reflectively so the editor still builds and runs on JDK 17
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Thread newDaemonThread(Runnable task) {
+        Thread thread = new Thread(task, "graph-run");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public CompletableFuture<Object[]> submit() {
+        CompletableFuture<Object[]> result = new CompletableFuture<>();
+        queuedRuns.incrementAndGet();
+        runThreads.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                queuedRuns.decrementAndGet();
+                Thread.currentThread().interrupt();
+                result.completeExceptionally(e);
+                return;
+            }
+            queuedRuns.decrementAndGet();
+            activeRuns.incrementAndGet();
+            try {
+                result.complete(mode == Mode.PER_RUN ? runTracked() : scheduler.run());
+                completedRuns.incrementAndGet();
+            } catch (RuntimeException e) {
+                failedRuns.incrementAndGet();
+                result.completeExceptionally(e);
+            } finally {
+                activeRuns.decrementAndGet();
+                permits.release();
+            }
+        });
+        return result;
+    }
+
+    private Object[] runTracked() {
+        Thread thread = Thread.currentThread();
+        workers.add(thread);
+        try {
+            return interpreter.run();
+        } finally {
+            workers.remove(thread);
+        }
+    }
+
+    private void track(Runnable task) {
+        Thread thread = Thread.currentThread();
+        workers.add(thread);
+        try {
+            task.run();
+        } finally {
+            workers.remove(thread);
+        }
+    }
+
+    public Metrics getMetrics() {
+        int parked = 0;
+        int running = 0;
+        for (Thread worker : workers) {
+            switch (worker.getState()) {
+                case WAITING:
+                case TIMED_WAITING:
+                case BLOCKED:
+                    parked++;
+                    break;
+                case RUNNABLE:
+                    running++;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return new Metrics(queuedRuns.get(), activeRuns.get(), running, parked,
+            completedRuns.get(), failedRuns.get());
+    }
+
+    @Override
+    public void close() {
+        runThreads.shutdown();
+        nodeThreads.shutdown();
+    }
+
+    // Getters
+    public ExecutionPlan getPlan() { return plan; }
+    public Mode getMode() { return mode; }
+    public int getMaxConcurrentRuns() { return maxConcurrentRuns; }
+    public boolean isVirtual() { return virtual; }
+
+    public static class Metrics {
+        private final int queuedRuns;
+        private final int activeRuns;
+        private final int runningThreads;
+        private final int parkedThreads;
+        private final long completedRuns;
+        private final long failedRuns;
+
+        Metrics(int queuedRuns, int activeRuns, int runningThreads, int parkedThreads,
+                long completedRuns, long failedRuns) {
+            this.queuedRuns = queuedRuns;
+            this.activeRuns = activeRuns;
+            this.runningThreads = runningThreads;
+            this.parkedThreads = parkedThreads;
+            this.completedRuns = completedRuns;
+            this.failedRuns = failedRuns;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d queued, %d active (%d running, %d parked), %d completed, %d failed",
+                queuedRuns, activeRuns, runningThreads, parkedThreads, completedRuns, failedRuns);
+        }
+
+        // Getters
+        public int getQueuedRuns() { return queuedRuns; }
+        public int getActiveRuns() { return activeRuns; }
+        public int getRunningThreads() { return runningThreads; }
+        public int getParkedThreads() { return parkedThreads; }
+        public long getCompletedRuns() { return completedRuns; }
+        public long getFailedRuns() { return failedRuns; }
+    }
+}
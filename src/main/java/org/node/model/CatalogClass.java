@@ -0,0 +1,41 @@
+package org.node.model;
+
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+public class CatalogClass {
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+
+    private final String name;
+    private final String source;
+    private final int access;
+    private final List<CatalogMethod> methods;
+
+    public CatalogClass(String name, String source, int access, List<CatalogMethod> methods) {
+        this.name = name;
+        this.source = source;
+        this.access = access;
+        this.methods = methods;
+    }
+
+    public String getSimpleName() {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    public String getPackageName() {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(0, dot);
+    }
+
+    public boolean isInterface() { return Modifier.isInterface(access); }
+    public boolean isAbstract() { return Modifier.isAbstract(access); }
+    public boolean isEnum() { return (access & ACC_ENUM) != 0; }
+    public boolean isAnnotation() { return (access & ACC_ANNOTATION) != 0; }
+
+    // Getters
+    public String getName() { return name; }
+    public String getSource() { return source; }
+    public int getAccess() { return access; }
+    public List<CatalogMethod> getMethods() { return methods; }
+}
@@ -0,0 +1,93 @@
+package org.node.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// On-disk form of one catalog source (a JDK module or a jar):
+// magic, version, string table, then class records referencing it by index.
+class CatalogIndex {
+    private static final int MAGIC = 0x4A454349; // "JECI"
+    private static final int VERSION = 1;
+
+    private CatalogIndex() {
+    }
+
+    static void write(Path file, List<CatalogClass> classes) throws IOException {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIds = new HashMap<>();
+        for (CatalogClass cls : classes) {
+            intern(cls.getName(), strings, stringIds);
+            for (CatalogMethod method : cls.getMethods()) {
+                intern(method.getName(), strings, stringIds);
+                intern(method.getDescriptor(), strings, stringIds);
+            }
+        }
+
+        // Write next to the target and move into place so readers never see a partial file
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(strings.size());
+            for (String value : strings) {
+                out.writeUTF(value);
+            }
+            out.writeInt(classes.size());
+            for (CatalogClass cls : classes) {
+                out.writeInt(stringIds.get(cls.getName()));
+                out.writeShort(cls.getAccess());
+                out.writeShort(cls.getMethods().size());
+                for (CatalogMethod method : cls.getMethods()) {
+                    out.writeInt(stringIds.get(method.getName()));
+                    out.writeInt(stringIds.get(method.getDescriptor()));
+                    out.writeShort(method.getAccess());
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static List<CatalogClass> read(Path file, String source) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported catalog index: " + file);
+            }
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+            int classCount = in.readInt();
+            List<CatalogClass> classes = new ArrayList<>(classCount);
+            for (int i = 0; i < classCount; i++) {
+                String name = strings[in.readInt()];
+                int access = in.readUnsignedShort();
+                int methodCount = in.readUnsignedShort();
+                List<CatalogMethod> methods = new ArrayList<>(methodCount);
+                for (int m = 0; m < methodCount; m++) {
+                    methods.add(new CatalogMethod(strings[in.readInt()], strings[in.readInt()], in.readUnsignedShort()));
+                }
+                classes.add(new CatalogClass(name, source, access, methods));
+            }
+            return classes;
+        }
+    }
+
+    private static void intern(String value, List<String> strings, Map<String, Integer> ids) {
+        if (!ids.containsKey(value)) {
+            ids.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+}
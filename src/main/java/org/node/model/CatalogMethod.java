@@ -0,0 +1,68 @@
+package org.node.model;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CatalogMethod {
+    public static final String CONSTRUCTOR_NAME = "<init>";
+
+    private final String name;
+    private final String descriptor;
+    private final int access;
+
+    public CatalogMethod(String name, String descriptor, int access) {
+        this.name = name;
+        this.descriptor = descriptor;
+        this.access = access;
+    }
+
+    public boolean isConstructor() {
+        return CONSTRUCTOR_NAME.equals(name);
+    }
+
+    public boolean isStatic() {
+        return Modifier.isStatic(access);
+    }
+
+    // Binary names of the parameter types, e.g. "int", "java.lang.Object", "java.lang.String[]"
+    public List<String> getParameterTypeNames() {
+        List<String> types = new ArrayList<>();
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            int start = i;
+            while (descriptor.charAt(i) == '[') i++;
+            if (descriptor.charAt(i) == 'L') {
+                i = descriptor.indexOf(';', i);
+            }
+            i++;
+            types.add(typeName(descriptor, start, i));
+        }
+        return types;
+    }
+
+    private static String typeName(String descriptor, int start, int end) {
+        int dims = 0;
+        while (descriptor.charAt(start + dims) == '[') dims++;
+        char tag = descriptor.charAt(start + dims);
+        String base;
+        switch (tag) {
+            case 'Z': base = "boolean"; break;
+            case 'B': base = "byte"; break;
+            case 'C': base = "char"; break;
+            case 'S': base = "short"; break;
+            case 'I': base = "int"; break;
+            case 'J': base = "long"; break;
+            case 'F': base = "float"; break;
+            case 'D': base = "double"; break;
+            case 'V': base = "void"; break;
+            default: base = descriptor.substring(start + dims + 1, end - 1).replace('/', '.');
+        }
+        return base + "[]".repeat(dims);
+    }
+
+    // Getters
+    public String getName() { return name; }
+    public String getDescriptor() { return descriptor; }
+    public int getAccess() { return access; }
+}
@@ -0,0 +1,458 @@
+package org.node.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Executable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// Append-only log of edits to a GraphStore, kept next to the store's snapshot file.
+// Edits go through the journal, which applies them to the store at once and queues a
+// small entry; a background thread appends queued entries in batches. compact() writes
+// a new snapshot and drops the entries it covers. open() replays the entries newer than
+// the snapshot, so a crash loses at most the batch that had not been flushed yet.
+// getGraph() is for reading; edits made on the store directly are not recorded.
+public class ChangeJournal implements Closeable {
+    private static final int MAGIC = 0x4A454A4C; // "JEJL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final long FLUSH_INTERVAL_MS = 200;
+    private static final long COMPACT_THRESHOLD = 64L << 20;
+
+    private static final byte ADD_NODE = 1;
+    private static final byte ADD_PIN = 2;
+    private static final byte REMOVE_NODE = 3;
+    private static final byte MOVE = 4;
+    private static final byte CONNECT = 5;
+    private static final byte DISCONNECT = 6;
+    private static final byte SET_DEFAULT = 7;
+
+    private static final Node.NodeType[] NODE_TYPES = Node.NodeType.values();
+    private static final Pin.PinType[] PIN_TYPES = Pin.PinType.values();
+
+    private final Path snapshot;
+    private final Path file;
+    private final GraphStore graph;
+    private final List<byte[]> pending = new ArrayList<>();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "change-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long sequence;
+    private Runnable onCompactionDue;
+
+    // Writer thread only
+    private FileChannel channel;
+    private boolean compactionRequested;
+
+    private ChangeJournal(Path snapshot, Path file, GraphStore graph, FileChannel channel, long sequence) {
+        this.snapshot = snapshot;
+        this.file = file;
+        this.graph = graph;
+        this.channel = channel;
+        this.sequence = sequence;
+        writer.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Loads the snapshot if there is one and replays the journal on top of it
+    public static ChangeJournal open(Path snapshot, Path file) throws IOException {
+        GraphStore graph = new GraphStore();
+        long covered = 0;
+        if (Files.exists(snapshot)) {
+            GraphFile graphFile = GraphFile.open(snapshot);
+            try {
+                graph = graphFile.toStore();
+            } catch (RuntimeException e) {
+                throw new IOException("Cannot load snapshot " + snapshot, e);
+            }
+            covered = graphFile.getSequence();
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            long sequence = covered;
+            List<ByteBuffer> entries = new ArrayList<>();
+            long end = readEntries(channel, file, entries);
+            for (ByteBuffer entry : entries) {
+                long entrySequence = entry.getLong(0);
+                if (entrySequence <= covered) continue;
+                try {
+                    apply(graph, entry);
+                } catch (RuntimeException e) {
+                    throw new IOException("Cannot replay journal entry " + entrySequence + " in " + file, e);
+                }
+                sequence = Math.max(sequence, entrySequence);
+            }
+            // A torn tail from a crash mid-write is cut off
+            channel.truncate(end);
+            channel.position(end);
+            return new ChangeJournal(snapshot, file, graph, channel, sequence);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Entries are length, CRC32 and body; reading stops at the first incomplete or damaged one
+    private static long readEntries(FileChannel channel, Path file, List<ByteBuffer> entries) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            return HEADER_SIZE;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Journal too large to replay: " + file);
+        }
+        ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (size < HEADER_SIZE || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Unsupported journal: " + file);
+        }
+        int position = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        while (position + 8 <= size) {
+            int length = data.getInt(position);
+            if (length < 9 || position + 8L + length > size) break;
+            ByteBuffer body = data.slice(position + 8, length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != data.getInt(position + 4)) break;
+            entries.add(body);
+            position += 8 + length;
+        }
+        return position;
+    }
+
+    private static void apply(GraphStore graph, ByteBuffer entry) {
+        ByteBuffer in = entry.duplicate().position(9);
+        switch (entry.get(8)) {
+            case ADD_NODE: {
+                String title = readString(in);
+                Node.NodeType type = NODE_TYPES[in.get()];
+                double x = in.getDouble();
+                double y = in.getDouble();
+                String signature = readString(in);
+                graph.addNode(title, type, x, y, signature == null ? null : MethodRegistry.getDefault().find(signature));
+                break;
+            }
+            case ADD_PIN: {
+                int node = in.getInt();
+                Pin.PinType type = PIN_TYPES[in.get()];
+                boolean input = in.get() != 0;
+                graph.addPin(node, type, readString(in), readString(in), input);
+                break;
+            }
+            case REMOVE_NODE:
+                graph.removeNode(in.getInt());
+                break;
+            case MOVE:
+                graph.setPosition(in.getInt(), in.getDouble(), in.getDouble());
+                break;
+            case CONNECT:
+                graph.connect(in.getInt(), in.getInt());
+                break;
+            case DISCONNECT: {
+                int edge = graph.getIncoming(in.getInt());
+                if (edge >= 0) {
+                    graph.disconnect(edge);
+                }
+                break;
+            }
+            case SET_DEFAULT: {
+                int pin = in.getInt();
+                byte kind = in.get();
+                Object value = null;
+                if (kind >= 0) {
+                    ValueKind valueKind = ValueKind.get(kind);
+                    value = valueKind == ValueKind.STRING ? readString(in) : valueKind.fromBits(in.getLong());
+                }
+                graph.setDefaultValue(pin, value);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown journal entry type " + entry.get(8));
+        }
+    }
+
+    public int addNode(String title, Node.NodeType type, double x, double y, Executable executable) {
+        int node = graph.addNode(title, type, x, y, executable);
+        Entry entry = new Entry(ADD_NODE);
+        entry.writeString(title);
+        entry.writeByte(type.ordinal());
+        entry.writeDouble(x);
+        entry.writeDouble(y);
+        entry.writeString(executable == null ? null : MethodRegistry.signatureOf(executable));
+        append(entry);
+        return node;
+    }
+
+    public int addPin(int node, Pin.PinType type, String name, String label, boolean input) {
+        int pin = graph.addPin(node, type, name, label, input);
+        Entry entry = new Entry(ADD_PIN);
+        entry.writeInt(node);
+        entry.writeByte(type.ordinal());
+        entry.writeByte(input ? 1 : 0);
+        entry.writeString(name);
+        entry.writeString(label);
+        append(entry);
+        return pin;
+    }
+
+    public void removeNode(int node) {
+        graph.removeNode(node);
+        Entry entry = new Entry(REMOVE_NODE);
+        entry.writeInt(node);
+        append(entry);
+    }
+
+    public void setPosition(int node, double x, double y) {
+        graph.setPosition(node, x, y);
+        Entry entry = new Entry(MOVE);
+        entry.writeInt(node);
+        entry.writeDouble(x);
+        entry.writeDouble(y);
+        append(entry);
+    }
+
+    public int connect(int sourcePin, int targetPin) {
+        int edge = graph.connect(sourcePin, targetPin);
+        Entry entry = new Entry(CONNECT);
+        entry.writeInt(sourcePin);
+        entry.writeInt(targetPin);
+        append(entry);
+        return edge;
+    }
+
+    // Recorded by target pin, since wire ids are not kept by snapshots
+    public void disconnect(int edge) {
+        int targetPin = graph.getEdgeTarget(edge);
+        if (targetPin < 0) return;
+        graph.disconnect(edge);
+        Entry entry = new Entry(DISCONNECT);
+        entry.writeInt(targetPin);
+        append(entry);
+    }
+
+    public void setDefaultValue(int pin, Object value) {
+        ValueKind kind = value == null ? null : ValueKind.of(value);
+        graph.setDefaultValue(pin, value);
+        Entry entry = new Entry(SET_DEFAULT);
+        entry.writeInt(pin);
+        entry.writeByte(kind == null ? -1 : kind.ordinal());
+        if (kind == ValueKind.STRING) {
+            entry.writeString((String) value);
+        } else if (kind != null) {
+            entry.writeLong(kind.toBits(value));
+        }
+        append(entry);
+    }
+
+    private void append(Entry entry) {
+        byte[] bytes = entry.finish(++sequence);
+        synchronized (pending) {
+            pending.add(bytes);
+        }
+    }
+
+    // Copies the store on the calling thread, then writes the snapshot and trims the
+    // journal in the background. Must be called from the thread that edits the graph.
+    public CompletableFuture<Void> compact() {
+        GraphStore copy = graph.copy();
+        long covered = sequence;
+        return CompletableFuture.runAsync(() -> {
+            try {
+                flush();
+                GraphFile.write(copy, snapshot, covered);
+                trim(covered);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                compactionRequested = false;
+            }
+        }, writer);
+    }
+
+    // Keeps only entries newer than the snapshot, swapping in a new file atomically
+    private void trim(long covered) throws IOException {
+        List<ByteBuffer> entries = new ArrayList<>();
+        readEntries(channel, file, entries);
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            List<ByteBuffer> kept = new ArrayList<>();
+            kept.add(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip());
+            for (ByteBuffer entry : entries) {
+                if (entry.getLong(0) <= covered) continue;
+                kept.add(ByteBuffer.allocate(8).putInt(entry.capacity()).putInt(checksum(entry)).flip());
+                kept.add(entry.duplicate());
+            }
+            writeFully(out, kept.toArray(new ByteBuffer[0]));
+            out.force(false);
+        }
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            // Entries stay queued and are retried on the next flush
+            e.printStackTrace();
+        }
+    }
+
+    private void flush() throws IOException {
+        List<byte[]> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) return;
+            batch = new ArrayList<>(pending);
+        }
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(batch.get(i));
+        }
+        long start = channel.position();
+        try {
+            writeFully(channel, buffers);
+            channel.force(false);
+        } catch (IOException e) {
+            channel.truncate(start);
+            channel.position(start);
+            throw e;
+        }
+        synchronized (pending) {
+            pending.subList(0, batch.size()).clear();
+        }
+        if (!compactionRequested && channel.size() > COMPACT_THRESHOLD && onCompactionDue != null) {
+            compactionRequested = true;
+            onCompactionDue.run();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer[] buffers) throws IOException {
+        while (buffers[buffers.length - 1].hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+
+    private static int checksum(ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        return (int) crc.getValue();
+    }
+
+    // Flushes what is queued and stops the writer thread
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.submit(() -> {
+                flush();
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            writer.shutdown();
+            channel.close();
+        }
+    }
+
+    // Called on the writer thread once the journal outgrows its threshold; the handler is
+    // expected to hand over to the editing thread and call compact() there
+    public void setOnCompactionDue(Runnable handler) {
+        this.onCompactionDue = handler;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Getters
+    public GraphStore getGraph() { return graph; }
+    public long getSequence() { return sequence; }
+
+    // One encoded entry: length, CRC32, then sequence, type and payload
+    private static class Entry {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final byte type;
+
+        Entry(byte type) {
+            this.type = type;
+        }
+
+        void writeByte(int value) {
+            bytes.write(value);
+        }
+
+        void writeInt(int value) {
+            try {
+                out.writeInt(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void writeLong(long value) {
+            try {
+                out.writeLong(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void writeDouble(double value) {
+            writeLong(Double.doubleToLongBits(value));
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeInt(-1);
+                return;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(encoded.length);
+            bytes.write(encoded, 0, encoded.length);
+        }
+
+        byte[] finish(long sequence) {
+            byte[] payload = bytes.toByteArray();
+            ByteBuffer body = ByteBuffer.allocate(9 + payload.length).putLong(sequence).put(type).put(payload);
+            body.flip();
+            return ByteBuffer.allocate(8 + body.remaining())
+                .putInt(body.remaining())
+                .putInt(checksum(body))
+                .put(body)
+                .array();
+        }
+    }
+}
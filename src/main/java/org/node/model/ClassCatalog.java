@@ -0,0 +1,251 @@
+package org.node.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Every public top-level class of the exported JDK packages and any user jars.
+// Sources are scanned in parallel from class file bytes and each source is cached
+// as a binary index named after a hash of its identity, so later startups only read indexes.
+public class ClassCatalog {
+    private static final Set<String> EXCLUDED_PACKAGES = Set.of(
+        "sun.", "com.sun.", "java.awt", "javax.swing", "jdk.internal."
+    );
+    private static final Path DEFAULT_INDEX_DIR = Paths.get(System.getProperty("user.home"), ".jeditor", "catalog");
+    private static volatile ClassCatalog defaultCatalog;
+
+    private final List<CatalogClass> classes;
+    private final Map<String, CatalogClass> byName;
+
+    private ClassCatalog(List<CatalogClass> classes) {
+        this.classes = Collections.unmodifiableList(classes);
+        this.byName = new HashMap<>();
+        for (CatalogClass cls : classes) {
+            byName.putIfAbsent(cls.getName(), cls);
+        }
+    }
+
+    public static ClassCatalog getDefault() {
+        ClassCatalog catalog = defaultCatalog;
+        if (catalog == null) {
+            synchronized (ClassCatalog.class) {
+                catalog = defaultCatalog;
+                if (catalog == null) {
+                    catalog = load(DEFAULT_INDEX_DIR, List.of());
+                    defaultCatalog = catalog;
+                }
+            }
+        }
+        return catalog;
+    }
+
+    public static ClassCatalog load(Path indexDir, List<Path> userJars) {
+        List<Source> sources = new ArrayList<>();
+        ModuleFinder.ofSystem().findAll().stream()
+            .sorted(Comparator.comparing(ref -> ref.descriptor().name()))
+            .forEach(ref -> sources.add(new ModuleSource(ref)));
+        for (Path jar : userJars) {
+            sources.add(new JarSource(jar));
+        }
+
+        List<CatalogClass> classes = sources.parallelStream()
+            .flatMap(source -> loadSource(indexDir, source).stream())
+            .filter(cls -> !isExcluded(cls.getName()))
+            .sorted(Comparator.comparing(CatalogClass::getName))
+            .collect(Collectors.toList());
+        return new ClassCatalog(classes);
+    }
+
+    // A source that cannot be read is left out, so one bad jar or index only costs its own classes
+    private static List<CatalogClass> loadSource(Path indexDir, Source source) {
+        try {
+            Path index = indexDir.resolve(source.key() + ".idx");
+            if (Files.exists(index)) {
+                try {
+                    return CatalogIndex.read(index, source.name());
+                } catch (IOException | RuntimeException e) {
+                    // Stale or damaged index, fall through and rescan
+                    System.err.println("Rescanning " + source.name() + ", unreadable catalog index: " + e);
+                }
+            }
+            List<CatalogClass> classes = source.scan();
+            try {
+                CatalogIndex.write(index, classes);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return classes;
+        } catch (RuntimeException e) {
+            System.err.println("Skipping " + source.name() + ": " + e);
+            return List.of();
+        }
+    }
+
+    // Null for a malformed class file, which is skipped rather than failing its source
+    private static CatalogClass readClass(byte[] bytes, String source, String entry) {
+        try {
+            return ClassFileReader.read(bytes, source);
+        } catch (RuntimeException e) {
+            System.err.println("Skipping " + entry + " in " + source + ": " + e);
+            return null;
+        }
+    }
+
+    private static boolean isExcluded(String className) {
+        for (String prefix : EXCLUDED_PACKAGES) {
+            if (className.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    public CatalogClass find(String className) {
+        return byName.get(className);
+    }
+
+    public List<CatalogClass> getClassesInPackage(String packageName) {
+        return classes.stream()
+            .filter(cls -> cls.getPackageName().equals(packageName))
+            .collect(Collectors.toList());
+    }
+
+    public List<CatalogClass> getClasses() {
+        return classes;
+    }
+
+    private static String hash(String identity) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(identity.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface Source {
+        String name();
+        String key();
+        List<CatalogClass> scan();
+    }
+
+    private static class ModuleSource implements Source {
+        private final ModuleReference reference;
+
+        ModuleSource(ModuleReference reference) {
+            this.reference = reference;
+        }
+
+        @Override
+        public String name() {
+            return reference.descriptor().name();
+        }
+
+        // A module's classes only change with the runtime image it ships in
+        @Override
+        public String key() {
+            return hash("jrt|" + System.getProperty("java.home") + "|" +
+                System.getProperty("java.runtime.version") + "|" + name());
+        }
+
+        @Override
+        public List<CatalogClass> scan() {
+            Set<String> exported = new TreeSet<>();
+            for (ModuleDescriptor.Exports exports : reference.descriptor().exports()) {
+                if (!exports.isQualified()) {
+                    exported.add(exports.source());
+                }
+            }
+            if (exported.isEmpty()) return List.of();
+
+            FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+            return exported.parallelStream()
+                .flatMap(pkg -> listClasses(jrt.getPath("/modules", name(), pkg.replace('.', '/'))))
+                .map(path -> {
+                    try {
+                        return readClass(Files.readAllBytes(path), name(), path.toString());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        }
+
+        private static Stream<Path> listClasses(Path packageDir) {
+            try (Stream<Path> files = Files.list(packageDir)) {
+                return files.filter(path -> path.toString().endsWith(".class"))
+                    .collect(Collectors.toList())
+                    .stream();
+            } catch (IOException e) {
+                return Stream.empty();
+            }
+        }
+    }
+
+    private static class JarSource implements Source {
+        private final Path jar;
+
+        JarSource(Path jar) {
+            this.jar = jar.toAbsolutePath();
+        }
+
+        @Override
+        public String name() {
+            return jar.getFileName().toString();
+        }
+
+        @Override
+        public String key() {
+            try {
+                return hash("jar|" + jar + "|" + Files.size(jar) + "|" + Files.getLastModifiedTime(jar).toMillis());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public List<CatalogClass> scan() {
+            List<CatalogClass> classes = new ArrayList<>();
+            try (ZipFile zip = new ZipFile(jar.toFile())) {
+                for (ZipEntry entry : Collections.list(zip.entries())) {
+                    String entryName = entry.getName();
+                    if (!entryName.endsWith(".class") || entryName.startsWith("META-INF/")) continue;
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        CatalogClass cls = readClass(in.readAllBytes(), name(), entryName);
+                        if (cls != null) {
+                            classes.add(cls);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return classes;
+        }
+    }
+}
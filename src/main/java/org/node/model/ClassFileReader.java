@@ -0,0 +1,103 @@
+package org.node.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads the header and method table of a class file without loading the class.
+// Returns null for anything the catalog does not list (non-public, nested, synthetic).
+class ClassFileReader {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_BRIDGE = 0x0040;
+    private static final int ACC_SYNTHETIC = 0x1000;
+    private static final int ACC_MODULE = 0x8000;
+
+    private ClassFileReader() {
+    }
+
+    static CatalogClass read(byte[] bytes, String source) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+        in.getInt(); // minor and major version
+
+        int poolCount = in.getShort() & 0xFFFF;
+        int[] utf8Offsets = new int[poolCount];
+        int[] classNames = new int[poolCount];
+        for (int i = 1; i < poolCount; i++) {
+            int tag = in.get();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8Offsets[i] = in.position();
+                    in.position(in.position() + 2 + (in.getShort(in.position()) & 0xFFFF));
+                    break;
+                case 7: // Class
+                    classNames[i] = in.getShort() & 0xFFFF;
+                    break;
+                case 8: case 16: case 19: case 20: // String, MethodType, Module, Package
+                    in.position(in.position() + 2);
+                    break;
+                case 15: // MethodHandle
+                    in.position(in.position() + 3);
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    in.position(in.position() + 4);
+                    break;
+                case 5: case 6: // Long and Double take two slots
+                    in.position(in.position() + 8);
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        int access = in.getShort() & 0xFFFF;
+        String name = utf8(bytes, utf8Offsets[classNames[in.getShort() & 0xFFFF]]).replace('/', '.');
+        if ((access & ACC_PUBLIC) == 0 || (access & (ACC_SYNTHETIC | ACC_MODULE)) != 0 || name.indexOf('$') >= 0
+            || name.endsWith("package-info")) {
+            return null;
+        }
+        in.getShort(); // super class
+        int interfaceCount = in.getShort() & 0xFFFF;
+        in.position(in.position() + 2 * interfaceCount);
+
+        int fieldCount = in.getShort() & 0xFFFF;
+        for (int i = 0; i < fieldCount; i++) {
+            in.position(in.position() + 6);
+            skipAttributes(in);
+        }
+
+        int methodCount = in.getShort() & 0xFFFF;
+        List<CatalogMethod> methods = new ArrayList<>();
+        for (int i = 0; i < methodCount; i++) {
+            int methodAccess = in.getShort() & 0xFFFF;
+            int nameIndex = in.getShort() & 0xFFFF;
+            int descriptorIndex = in.getShort() & 0xFFFF;
+            skipAttributes(in);
+            if ((methodAccess & ACC_PUBLIC) == 0 || (methodAccess & (ACC_SYNTHETIC | ACC_BRIDGE)) != 0) continue;
+            String methodName = utf8(bytes, utf8Offsets[nameIndex]);
+            if (methodName.indexOf('$') >= 0 || methodName.equals("<clinit>")) continue;
+            methods.add(new CatalogMethod(methodName, utf8(bytes, utf8Offsets[descriptorIndex]), methodAccess));
+        }
+        return new CatalogClass(name, source, access, methods);
+    }
+
+    private static void skipAttributes(ByteBuffer in) {
+        int count = in.getShort() & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            in.getShort();
+            int length = in.getInt();
+            in.position(in.position() + length);
+        }
+    }
+
+    // Class file strings are modified UTF-8, identical to UTF-8 for identifiers
+    private static String utf8(byte[] bytes, int offset) {
+        int length = ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+        return new String(bytes, offset + 2, length, StandardCharsets.UTF_8);
+    }
+}
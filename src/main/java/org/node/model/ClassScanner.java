@@ -2,36 +2,19 @@ package org.node.model;
 
 import java.lang.reflect.*;
 import java.util.*;
-import java.io.File;
-import java.net.URL;
 import java.util.stream.Collectors;
 import javafx.geometry.Point2D;
 
 public class ClassScanner {
-    private static final Set<String> EXCLUDED_PACKAGES = Set.of(
-        "sun.", "com.sun.", "java.awt", "javax.swing"
-    );
-
     public static List<Class<?>> scanJavaUtilClasses() {
         List<Class<?>> classes = new ArrayList<>();
-        try {
-            // Get the java.util package URL
-            String packageName = "java.util";
-            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-            String path = packageName.replace('.', '/');
-            Enumeration<URL> resources = classLoader.getResources(path);
-
-            // Get built-in java.util classes
-            classes.addAll(Arrays.asList(
-                ArrayList.class, LinkedList.class, HashMap.class, 
-                HashSet.class, TreeMap.class, TreeSet.class,
-                Stack.class, Vector.class, Properties.class,
-                Collections.class, Arrays.class, List.class,
-                Map.class, Set.class, Queue.class
-            ));
-
-        } catch (Exception e) {
-            e.printStackTrace();
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        for (CatalogClass entry : ClassCatalog.getDefault().getClassesInPackage("java.util")) {
+            try {
+                classes.add(Class.forName(entry.getName(), false, classLoader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                e.printStackTrace();
+            }
         }
         return classes.stream()
             .filter(cls -> !cls.isAnonymousClass())
@@ -72,72 +55,12 @@ public class ClassScanner {
         }
     }
 
+    // Pin layout is reflected once per executable, see NodeTemplate
     public static Node createMethodNode(Method method, Point2D position) {
-        String methodName = method.getName();
-        Class<?> cls = method.getDeclaringClass();
-        Node node = new Node(methodName, Node.NodeType.FUNCTION, position);
-        
-        // Add execution input pin
-        node.addInputPin(new Pin("exec_in", Pin.PinType.FLOW, "Exec", true));
-        
-        // Add 'this' pin for instance methods
-        if (!Modifier.isStatic(method.getModifiers())) {
-            node.addInputPin(new Pin("this", Pin.PinType.OBJECT, cls.getSimpleName(), true));
-        }
-        
-        // Add parameter pins
-        Parameter[] parameters = method.getParameters();
-        for (int i = 0; i < parameters.length; i++) {
-            Parameter param = parameters[i];
-            node.addInputPin(new Pin(
-                param.getName() != null ? param.getName() : "arg" + i,
-                convertTypeToPinType(param.getType()),
-                param.getType().getSimpleName(),
-                true
-            ));
-        }
-        
-        // Add execution output pin
-        node.addOutputPin(new Pin("exec_out", Pin.PinType.FLOW, "Exec", false));
-        
-        // Add return value pin if not void
-        if (method.getReturnType() != void.class) {
-            node.addOutputPin(new Pin(
-                "return",
-                convertTypeToPinType(method.getReturnType()),
-                method.getReturnType().getSimpleName(),
-                false
-            ));
-        }
-        
-        return node;
+        return NodeTemplate.of(method).instantiate(position);
     }
 
     public static Node createConstructorNode(Constructor<?> constructor, Point2D position) {
-        Class<?> cls = constructor.getDeclaringClass();
-        Node node = new Node("Create " + cls.getSimpleName(), Node.NodeType.FUNCTION, position);
-        
-        // Add execution input pin
-        node.addInputPin(new Pin("exec_in", Pin.PinType.FLOW, "Exec", true));
-        
-        // Add parameter pins
-        Parameter[] parameters = constructor.getParameters();
-        for (int i = 0; i < parameters.length; i++) {
-            Parameter param = parameters[i];
-            node.addInputPin(new Pin(
-                param.getName() != null ? param.getName() : "arg" + i,
-                convertTypeToPinType(param.getType()),
-                param.getType().getSimpleName(),
-                true
-            ));
-        }
-        
-        // Add execution output pin
-        node.addOutputPin(new Pin("exec_out", Pin.PinType.FLOW, "Exec", false));
-        
-        // Add instance output pin
-        node.addOutputPin(new Pin("instance", Pin.PinType.OBJECT, cls.getSimpleName(), false));
-        
-        return node;
+        return NodeTemplate.of(constructor).instantiate(position);
     }
 }
@@ -0,0 +1,34 @@
+package org.node.model;
+
+import java.lang.invoke.MethodHandle;
+
+public class CompiledGraph implements GraphRunner {
+    private final ExecutionPlan plan;
+    private final MethodHandle body;
+
+    CompiledGraph(ExecutionPlan plan, MethodHandle body) {
+        this.plan = plan;
+        this.body = body;
+    }
+
+    @Override
+    public Object[] run() {
+        // The body writes each step's index here before running it
+        int[] progress = {-1};
+        try {
+            return (Object[]) body.invokeExact(progress);
+        } catch (GraphExecutionException e) {
+            throw e;
+        } catch (Throwable t) {
+            if (progress[0] < 0) {
+                throw new GraphExecutionException("Compiled graph failed", t);
+            }
+            throw new GraphExecutionException("Node '" + plan.getNode(progress[0]).getTitle() + "' failed", t);
+        }
+    }
+
+    @Override
+    public ExecutionPlan getPlan() {
+        return plan;
+    }
+}
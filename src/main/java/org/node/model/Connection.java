@@ -17,9 +17,23 @@ public class Connection {
     public boolean isValid() {
         return sourcePin != null && 
                targetPin != null && 
-               sourcePin.getType() == targetPin.getType() &&
                !sourcePin.isInput() && 
-               targetPin.isInput();
+               targetPin.isInput() &&
+               TypeCompatibility.canConnect(sourcePin, targetPin);
+    }
+
+    // A wire is identified by its endpoints, so views of the same wire compare equal
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof Connection)) return false;
+        Connection that = (Connection) other;
+        return java.util.Objects.equals(sourcePin, that.sourcePin) && java.util.Objects.equals(targetPin, that.targetPin);
+    }
+
+    @Override
+    public int hashCode() {
+        return java.util.Objects.hash(sourcePin, targetPin);
     }
 
     // Getters
@@ -0,0 +1,172 @@
+package org.node.model;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Executable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Flattened, index-based form of a graph: nodes in the graph's topological order, so
+// after their exec predecessors and the nodes feeding their data, each with a pre-resolved
+// handle and the steps feeding its arguments. Built from a snapshot, so a plan can be made
+// and run off the thread that edits.
+public class ExecutionPlan {
+    private static final Set<Class<?>> IMMUTABLE_VALUES = Set.of(String.class, Boolean.class, Character.class,
+        Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class);
+
+    private final List<Node> nodes;
+    private final MethodHandle[] handles;
+    private final int[][] argSources;
+    private final Object[][] constants;
+    private final int[] dependencyCounts;
+    private final int[][] dependents;
+
+    private ExecutionPlan(List<Node> nodes, MethodHandle[] handles, int[][] argSources, Object[][] constants,
+                          int[] dependencyCounts, int[][] dependents) {
+        this.nodes = nodes;
+        this.handles = handles;
+        this.argSources = argSources;
+        this.constants = constants;
+        this.dependencyCounts = dependencyCounts;
+        this.dependents = dependents;
+    }
+
+    public static ExecutionPlan build(Graph graph) {
+        return build(graph.snapshot());
+    }
+
+    public static ExecutionPlan build(GraphSnapshot graph) {
+        // Maintained by the graph as wires are made, so there is nothing to search here
+        List<Node> order = graph.getTopologicalOrder();
+
+        Map<Node, Integer> stepOf = new HashMap<>();
+        for (int i = 0; i < order.size(); i++) {
+            stepOf.put(order.get(i), i);
+        }
+
+        int size = order.size();
+        MethodHandle[] handles = new MethodHandle[size];
+        int[][] argSources = new int[size][];
+        Object[][] constants = new Object[size][];
+        List<Set<Integer>> dependencies = new ArrayList<>();
+        Map<Pin, Integer> lastReaders = new HashMap<>();
+        for (int step = 0; step < size; step++) {
+            Node node = order.get(step);
+            List<Pin> args = dataInputs(node);
+            argSources[step] = new int[args.size()];
+            constants[step] = new Object[args.size()];
+            for (int i = 0; i < args.size(); i++) {
+                Pin pin = args.get(i);
+                Connection wire = graph.getIncoming(pin);
+                if (wire != null) {
+                    argSources[step][i] = stepOf.get(wire.getSourcePin().getParentNode());
+                } else {
+                    argSources[step][i] = -1;
+                    constants[step][i] = graph.getDefaultValue(pin);
+                }
+            }
+            if (node.getExecutable() != null) {
+                handles[step] = spread(resolve(node.getExecutable()));
+            }
+            dependencies.add(dependenciesOf(graph, node, stepOf, lastReaders));
+        }
+
+        // Invert into dependents so a scheduler can release steps as their inputs complete
+        int[] dependencyCounts = new int[size];
+        List<List<Integer>> dependentLists = new ArrayList<>();
+        for (int step = 0; step < size; step++) {
+            dependentLists.add(new ArrayList<>());
+        }
+        for (int step = 0; step < size; step++) {
+            dependencyCounts[step] = dependencies.get(step).size();
+            for (int dependency : dependencies.get(step)) {
+                dependentLists.get(dependency).add(step);
+            }
+        }
+        int[][] dependents = new int[size][];
+        for (int step = 0; step < size; step++) {
+            dependents[step] = dependentLists.get(step).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        return new ExecutionPlan(order, handles, argSources, constants,
+            dependencyCounts, dependents);
+    }
+
+    // Steps that must finish first: the producers of each data input and the exec predecessors.
+    // Steps reading the same object, such as several calls on one receiver, also wait for the
+    // previous reader in plan order, so a parallel run never has two of them touching it at once.
+    private static Set<Integer> dependenciesOf(GraphSnapshot graph, Node node, Map<Node, Integer> stepOf,
+                                               Map<Pin, Integer> lastReaders) {
+        Set<Integer> dependencies = new LinkedHashSet<>();
+        int step = stepOf.get(node);
+        for (Pin pin : node.getInputPins()) {
+            Connection wire = graph.getIncoming(pin);
+            if (wire == null) continue;
+            Integer source = stepOf.get(wire.getSourcePin().getParentNode());
+            if (source != null && source < step) {
+                dependencies.add(source);
+            }
+            if (pin.getType() != Pin.PinType.FLOW && !isShareable(wire.getSourcePin())) {
+                Integer previous = lastReaders.put(wire.getSourcePin(), step);
+                if (previous != null && previous != step) {
+                    dependencies.add(previous);
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    // Values any number of steps can read at once; pins without a Java type go by pin type
+    private static boolean isShareable(Pin output) {
+        Class<?> type = output.getJavaType();
+        if (type == null) {
+            Pin.PinType pinType = output.getType();
+            return pinType == Pin.PinType.BOOLEAN || pinType == Pin.PinType.NUMBER || pinType == Pin.PinType.STRING;
+        }
+        return type.isPrimitive() || IMMUTABLE_VALUES.contains(type);
+    }
+
+    static List<Pin> dataInputs(Node node) {
+        List<Pin> pins = new ArrayList<>();
+        for (Pin pin : node.getInputPins()) {
+            if (pin.getType() != Pin.PinType.FLOW) {
+                pins.add(pin);
+            }
+        }
+        return pins;
+    }
+
+    // Direct handle for the executable, receiver first for instance methods
+    static MethodHandle resolve(Executable executable) {
+        return MethodRegistry.getDefault().handle(executable);
+    }
+
+    // (Object[])Object view of a handle so every step is invoked the same way
+    private static MethodHandle spread(MethodHandle handle) {
+        int arity = handle.type().parameterCount();
+        return handle.asType(handle.type().generic()).asSpreader(Object[].class, arity);
+    }
+
+    Object invoke(int step, Object[] values) throws Throwable {
+        MethodHandle handle = handles[step];
+        if (handle == null) return null;
+
+        int[] sources = argSources[step];
+        Object[] args = new Object[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            args[i] = sources[i] >= 0 ? values[sources[i]] : constants[step][i];
+        }
+        return (Object) handle.invokeExact(args);
+    }
+
+    public int size() { return nodes.size(); }
+    public List<Node> getNodes() { return nodes; }
+    public Node getNode(int step) { return nodes.get(step); }
+    int getDependencyCount(int step) { return dependencyCounts[step]; }
+    int[] getDependents(int step) { return dependents[step]; }
+    int[] getArgSources(int step) { return argSources[step]; }
+    Object[] getConstants(int step) { return constants[step]; }
+}
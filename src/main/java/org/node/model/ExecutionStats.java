@@ -0,0 +1,36 @@
+package org.node.model;
+
+public class ExecutionStats {
+    private final long runs;
+    private final int nodesPerRun;
+    private final long elapsedNanos;
+
+    public ExecutionStats(long runs, int nodesPerRun, long elapsedNanos) {
+        this.runs = runs;
+        this.nodesPerRun = nodesPerRun;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public double getRunsPerSecond() {
+        return elapsedNanos == 0 ? 0 : runs * 1e9 / elapsedNanos;
+    }
+
+    public double getNodesPerSecond() {
+        return getRunsPerSecond() * nodesPerRun;
+    }
+
+    public double getNanosPerRun() {
+        return runs == 0 ? 0 : (double) elapsedNanos / runs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d runs of %d nodes in %.1f ms (%.0f runs/s, %.0f ns/run)",
+            runs, nodesPerRun, elapsedNanos / 1e6, getRunsPerSecond(), getNanosPerRun());
+    }
+
+    // Getters
+    public long getRuns() { return runs; }
+    public int getNodesPerRun() { return nodesPerRun; }
+    public long getElapsedNanos() { return elapsedNanos; }
+}
@@ -0,0 +1,214 @@
+package org.node.model;
+
+import javafx.geometry.Point2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Graph {
+    private final List<Node> nodes;
+    private final List<Connection> connections;
+    private final Map<Pin, List<Connection>> outgoing;
+    // Every wire touching a node, either end
+    private final Map<Node, List<Connection>> adjacency;
+    private final TopologicalOrder order;
+    // Persistent maps of what can be edited; every edit makes a new version
+    private GraphState state = GraphState.EMPTY;
+    // Latest version for readers on other threads, replaced on every edit
+    private volatile GraphSnapshot head = new GraphSnapshot(GraphState.EMPTY, PersistentMap.empty(), 0);
+    private long version;
+    private int batchDepth;
+
+    public Graph() {
+        this.nodes = new ArrayList<>();
+        this.connections = new ArrayList<>();
+        this.outgoing = new HashMap<>();
+        this.adjacency = new HashMap<>();
+        this.order = new TopologicalOrder(this);
+    }
+
+    public void addNode(Node node) {
+        nodes.add(node);
+        order.add(node);
+        update(state.withNode(node));
+    }
+
+    public void removeNode(Node node) {
+        batch(() -> {
+            for (Connection connection : new ArrayList<>(getConnections(node))) {
+                disconnect(connection);
+            }
+            adjacency.remove(node);
+            nodes.remove(node);
+            order.remove(node);
+            update(state.withoutNode(node));
+        });
+    }
+
+    public Connection connect(Pin sourcePin, Pin targetPin) {
+        Connection connection = new Connection(sourcePin, targetPin);
+        if (!connection.isValid()) {
+            throw new IllegalArgumentException("Cannot connect " + sourcePin.getId() + " to " + targetPin.getId());
+        }
+        // Wires must keep the graph acyclic; ranks are only updated when they do
+        if (!order.addEdge(sourcePin.getParentNode(), targetPin.getParentNode())) {
+            throw new IllegalArgumentException("Connecting " + sourcePin.getId() + " to " + targetPin.getId() + " would create a cycle");
+        }
+
+        // An input pin accepts a single wire, a new one replaces the old
+        Connection previous = state.getIncoming(targetPin);
+        batch(() -> {
+            if (previous != null) {
+                disconnect(previous);
+            }
+            attach(connection);
+        });
+        return connection;
+    }
+
+    private void attach(Connection connection) {
+        Pin sourcePin = connection.getSourcePin();
+        Pin targetPin = connection.getTargetPin();
+        connections.add(connection);
+        update(state.withWire(connection));
+        outgoing.computeIfAbsent(sourcePin, pin -> new ArrayList<>()).add(connection);
+        adjacency.computeIfAbsent(sourcePin.getParentNode(), node -> new ArrayList<>()).add(connection);
+        if (!targetPin.getParentNode().equals(sourcePin.getParentNode())) {
+            adjacency.computeIfAbsent(targetPin.getParentNode(), node -> new ArrayList<>()).add(connection);
+        }
+    }
+
+    public void disconnect(Connection connection) {
+        if (!connections.remove(connection)) return;
+        update(state.withoutWire(connection));
+        List<Connection> wires = outgoing.get(connection.getSourcePin());
+        if (wires != null) {
+            wires.remove(connection);
+            if (wires.isEmpty()) {
+                outgoing.remove(connection.getSourcePin());
+            }
+        }
+        removeAdjacent(connection.getSourcePin().getParentNode(), connection);
+        removeAdjacent(connection.getTargetPin().getParentNode(), connection);
+    }
+
+    public void setPosition(Node node, Point2D position) {
+        node.setPosition(position);
+        if (state.contains(node)) {
+            update(state.withPosition(node, position));
+        }
+    }
+
+    public void setDefaultValue(Pin pin, Object value) {
+        pin.setDefaultValue(value);
+        if (state.contains(pin.getParentNode())) {
+            update(state.withDefault(pin, value));
+        }
+    }
+
+    private void update(GraphState next) {
+        state = next;
+        if (batchDepth == 0) {
+            head = new GraphSnapshot(next, order.getRanks(), ++version);
+        }
+    }
+
+    // Readers see the state before a multi-step edit or after it, nothing in between
+    private void batch(Runnable edit) {
+        batchDepth++;
+        try {
+            edit.run();
+        } finally {
+            if (--batchDepth == 0 && head.getState() != state) {
+                head = new GraphSnapshot(state, order.getRanks(), ++version);
+            }
+        }
+    }
+
+    // Brings the graph to an earlier or later version. Only what differs is touched: wires
+    // go first and come back last, so every intermediate graph is acyclic like the target.
+    public void restore(GraphState target) {
+        if (target == state) return;
+        List<Connection> disconnected = new ArrayList<>();
+        List<Connection> connected = new ArrayList<>();
+        List<Node> removed = new ArrayList<>();
+        Map<Node, Point2D> placed = new HashMap<>();
+        Map<Pin, Object> values = new HashMap<>();
+        state.diff(target, new GraphState.Changes() {
+            @Override
+            public void nodeAdded(Node node, Point2D position) { placed.put(node, position); }
+            @Override
+            public void nodeRemoved(Node node) { removed.add(node); }
+            @Override
+            public void nodeMoved(Node node, Point2D position) { placed.put(node, position); }
+            @Override
+            public void connected(Connection connection) { connected.add(connection); }
+            @Override
+            public void disconnected(Connection connection) { disconnected.add(connection); }
+            @Override
+            public void defaultChanged(Pin pin, Object value) { values.put(pin, value); }
+        });
+        batch(() -> {
+            disconnected.forEach(this::disconnect);
+            removed.forEach(this::removeNode);
+            placed.forEach((node, position) -> {
+                node.setPosition(position);
+                if (!state.contains(node)) {
+                    addNode(node);
+                }
+            });
+            for (Connection connection : connected) {
+                order.addEdge(connection.getSourcePin().getParentNode(), connection.getTargetPin().getParentNode());
+                attach(connection);
+            }
+            // Pins of removed nodes keep their values for when the node comes back
+            values.forEach((pin, value) -> {
+                if (target.contains(pin.getParentNode())) pin.setDefaultValue(value);
+            });
+            // Adopt the target itself so later versions keep sharing its structure
+            update(target);
+        });
+    }
+
+    private void removeAdjacent(Node node, Connection connection) {
+        List<Connection> wires = adjacency.get(node);
+        if (wires != null) {
+            wires.remove(connection);
+            if (wires.isEmpty()) {
+                adjacency.remove(node);
+            }
+        }
+    }
+
+    // Whether connect would accept the wire, without changing anything
+    public boolean canConnect(Pin sourcePin, Pin targetPin) {
+        if (!new Connection(sourcePin, targetPin).isValid()) return false;
+        return !order.createsCycle(sourcePin.getParentNode(), targetPin.getParentNode());
+    }
+
+    public List<Connection> getConnections(Node node) {
+        List<Connection> wires = adjacency.get(node);
+        return wires != null ? Collections.unmodifiableList(wires) : Collections.emptyList();
+    }
+
+    public Connection getIncoming(Pin inputPin) {
+        return state.getIncoming(inputPin);
+    }
+
+    public List<Connection> getOutgoing(Pin outputPin) {
+        List<Connection> wires = outgoing.get(outputPin);
+        return wires != null ? Collections.unmodifiableList(wires) : Collections.emptyList();
+    }
+
+    // Getters
+    public List<Node> getNodes() { return Collections.unmodifiableList(nodes); }
+    public List<Connection> getConnections() { return Collections.unmodifiableList(connections); }
+    public GraphState getState() { return state; }
+    // Callable from any thread, see GraphSnapshot
+    public GraphSnapshot snapshot() { return head; }
+    // Every node after the nodes wired into it, the order execution runs in
+    public Collection<Node> getTopologicalOrder() { return order.getNodes(); }
+}
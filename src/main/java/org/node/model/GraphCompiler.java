@@ -0,0 +1,224 @@
+package org.node.model;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lowers an ExecutionPlan to a hidden class: one invokeExact per node in exec
+// order, data pins held in typed locals, and every handle in a static final
+// field so the JIT can treat it as a constant and inline through it. Each step
+// first writes its index to a progress slot, so a failure can name its node.
+public class GraphCompiler {
+    private static final String BODY_CLASS = "org/node/model/CompiledGraphBody";
+    private static final String MH = "java/lang/invoke/MethodHandle";
+    private static final String MH_DESC = "Ljava/lang/invoke/MethodHandle;";
+    private static final String OBJECT_DESC = "Ljava/lang/Object;";
+    private static final String VALUES_DESC = "([Ljava/lang/Object;[I)V";
+
+    // Keep each chunk below HotSpot's HugeMethodLimit (8000 bytes) so it still gets compiled
+    private static final int CHUNK_CODE_LIMIT = 7000;
+
+    private final ExecutionPlan plan;
+    private final ClassFileWriter cw = new ClassFileWriter(BODY_CLASS);
+    private final List<Object> classData = new ArrayList<>();
+    private final List<String> fieldNames = new ArrayList<>();
+    private final Class<?>[] valueTypes;
+
+    private GraphCompiler(ExecutionPlan plan) {
+        this.plan = plan;
+        this.valueTypes = new Class<?>[plan.size()];
+    }
+
+    public static CompiledGraph compile(Graph graph) {
+        return compile(ExecutionPlan.build(graph));
+    }
+
+    public static CompiledGraph compile(ExecutionPlan plan) {
+        return new GraphCompiler(plan).define();
+    }
+
+    private CompiledGraph define() {
+        List<String> chunks = emitChunks();
+        emitRun(chunks);
+        emitClassInitializer();
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                .defineHiddenClassWithClassData(cw.toByteArray(), classData.toArray(), true);
+            MethodHandle run = lookup.findStatic(lookup.lookupClass(), "run", MethodType.methodType(Object[].class, int[].class));
+            return new CompiledGraph(plan, run);
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new GraphExecutionException("Failed to define compiled graph", e);
+        }
+    }
+
+    private List<String> emitChunks() {
+        List<String> chunks = new ArrayList<>();
+        int step = 0;
+        while (step < plan.size() || chunks.isEmpty()) {
+            String name = "part" + chunks.size();
+            ClassFileWriter.Code code = new ClassFileWriter.Code();
+            int[] slots = new int[plan.size()];
+            int nextSlot = 2; // slot 0 holds the values array, slot 1 the progress array
+            int first = step;
+
+            while (step < plan.size() && (step == first || code.size() < CHUNK_CODE_LIMIT)) {
+                nextSlot = emitStep(code, step, first, slots, nextSlot);
+                step++;
+            }
+
+            // Publish this chunk's results for the caller and for later chunks
+            for (int i = first; i < step; i++) {
+                if (valueTypes[i] == void.class) continue;
+                code.load(Object[].class, 0);
+                code.pushInt(cw, i);
+                code.load(valueTypes[i], slots[i]);
+                box(code, valueTypes[i]);
+                code.op(ClassFileWriter.Code.AASTORE);
+                code.maxStack = Math.max(code.maxStack, 2 + ClassFileWriter.slotSize(valueTypes[i]));
+            }
+            code.op(ClassFileWriter.Code.RETURN);
+            code.maxLocals = nextSlot;
+            cw.addMethod(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_STATIC, name, VALUES_DESC, code);
+            chunks.add(name);
+        }
+        return chunks;
+    }
+
+    private int emitStep(ClassFileWriter.Code code, int step, int chunkStart, int[] slots, int nextSlot) {
+        Node node = plan.getNode(step);
+        if (node.getExecutable() == null) {
+            valueTypes[step] = void.class;
+            return nextSlot;
+        }
+
+        MethodHandle direct = ExecutionPlan.resolve(node.getExecutable());
+        int[] sources = plan.getArgSources(step);
+        Object[] constants = plan.getConstants(step);
+        Class<?>[] argTypes = new Class<?>[sources.length];
+
+        code.load(int[].class, 1);
+        code.op(ClassFileWriter.Code.ICONST_0);
+        code.pushInt(cw, step);
+        code.op(ClassFileWriter.Code.IASTORE);
+
+        String field = "h" + step;
+        code.op(ClassFileWriter.Code.GETSTATIC, cw.fieldRef(BODY_CLASS, field, MH_DESC));
+        int stack = 1;
+        int peak = 3;
+        for (int i = 0; i < sources.length; i++) {
+            int source = sources[i];
+            if (source < 0) {
+                String constant = "k" + step + "_" + i;
+                registerConstant(constant, constants[i]);
+                code.op(ClassFileWriter.Code.GETSTATIC, cw.fieldRef(BODY_CLASS, constant, OBJECT_DESC));
+                argTypes[i] = Object.class;
+            } else if (valueTypes[source] == void.class) {
+                code.op(ClassFileWriter.Code.ACONST_NULL);
+                argTypes[i] = Object.class;
+            } else if (source < chunkStart) {
+                code.load(Object[].class, 0);
+                code.pushInt(cw, source);
+                code.op(ClassFileWriter.Code.AALOAD);
+                argTypes[i] = Object.class;
+            } else {
+                code.load(valueTypes[source], slots[source]);
+                argTypes[i] = valueTypes[source];
+            }
+            // Loading from the values array briefly needs the array and index on the stack
+            peak = Math.max(peak, stack + 2);
+            stack += ClassFileWriter.slotSize(argTypes[i]);
+            peak = Math.max(peak, stack);
+        }
+
+        Class<?> returnType = direct.type().returnType();
+        MethodType callType = MethodType.methodType(returnType, argTypes);
+        MethodHandle adapted;
+        try {
+            adapted = direct.asType(callType);
+        } catch (WrongMethodTypeException e) {
+            throw new GraphExecutionException("Node '" + node.getTitle() + "' has incompatible inputs " + callType, e);
+        }
+        registerHandle(field, adapted);
+
+        code.op(ClassFileWriter.Code.INVOKEVIRTUAL, cw.methodRef(MH, "invokeExact", callType.toMethodDescriptorString()));
+        valueTypes[step] = returnType;
+        code.maxStack = Math.max(code.maxStack, Math.max(peak, ClassFileWriter.slotSize(returnType)));
+        if (returnType == void.class) {
+            return nextSlot;
+        }
+        slots[step] = nextSlot;
+        code.store(returnType, nextSlot);
+        return nextSlot + ClassFileWriter.slotSize(returnType);
+    }
+
+    // run(progress): slot 0 holds the progress array, slot 1 the values array
+    private void emitRun(List<String> chunks) {
+        ClassFileWriter.Code code = new ClassFileWriter.Code();
+        code.pushInt(cw, plan.size());
+        code.op(ClassFileWriter.Code.ANEWARRAY, cw.classRef("java/lang/Object"));
+        code.store(Object[].class, 1);
+        for (String chunk : chunks) {
+            code.load(Object[].class, 1);
+            code.load(int[].class, 0);
+            code.op(ClassFileWriter.Code.INVOKESTATIC, cw.methodRef(BODY_CLASS, chunk, VALUES_DESC));
+        }
+        code.load(Object[].class, 1);
+        code.op(ClassFileWriter.Code.ARETURN);
+        code.maxStack = 2;
+        code.maxLocals = 2;
+        cw.addMethod(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_STATIC, "run", "([I)[Ljava/lang/Object;", code);
+    }
+
+    // Copies class data into the static final fields when the hidden class initializes
+    private void emitClassInitializer() {
+        ClassFileWriter.Code code = new ClassFileWriter.Code();
+        code.op(ClassFileWriter.Code.INVOKESTATIC, cw.methodRef("java/lang/invoke/MethodHandles", "lookup",
+            "()Ljava/lang/invoke/MethodHandles$Lookup;"));
+        code.ldc(cw.string("_"));
+        code.ldc(cw.classRef("[Ljava/lang/Object;"));
+        code.op(ClassFileWriter.Code.INVOKESTATIC, cw.methodRef("java/lang/invoke/MethodHandles", "classData",
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;"));
+        code.op(ClassFileWriter.Code.CHECKCAST, cw.classRef("[Ljava/lang/Object;"));
+        code.store(Object[].class, 0);
+
+        for (int i = 0; i < fieldNames.size(); i++) {
+            String field = fieldNames.get(i);
+            boolean handle = field.startsWith("h");
+            code.load(Object[].class, 0);
+            code.pushInt(cw, i);
+            code.op(ClassFileWriter.Code.AALOAD);
+            if (handle) {
+                code.op(ClassFileWriter.Code.CHECKCAST, cw.classRef(MH));
+            }
+            code.op(ClassFileWriter.Code.PUTSTATIC, cw.fieldRef(BODY_CLASS, field, handle ? MH_DESC : OBJECT_DESC));
+        }
+        code.op(ClassFileWriter.Code.RETURN);
+        code.maxStack = 3;
+        code.maxLocals = 1;
+        cw.addMethod(ClassFileWriter.ACC_STATIC, "<clinit>", "()V", code);
+    }
+
+    private void registerHandle(String field, MethodHandle handle) {
+        cw.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_STATIC | ClassFileWriter.ACC_FINAL, field, MH_DESC);
+        fieldNames.add(field);
+        classData.add(handle);
+    }
+
+    private void registerConstant(String field, Object value) {
+        cw.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_STATIC | ClassFileWriter.ACC_FINAL, field, OBJECT_DESC);
+        fieldNames.add(field);
+        classData.add(value);
+    }
+
+    private void box(ClassFileWriter.Code code, Class<?> type) {
+        if (!type.isPrimitive()) return;
+        Class<?> wrapper = MethodType.methodType(type).wrap().returnType();
+        String owner = wrapper.getName().replace('.', '/');
+        String desc = "(" + ClassFileWriter.descriptor(type) + ")L" + owner + ";";
+        code.op(ClassFileWriter.Code.INVOKESTATIC, cw.methodRef(owner, "valueOf", desc));
+    }
+}
@@ -0,0 +1,13 @@
+package org.node.model;
+
+public class GraphExecutionException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public GraphExecutionException(String message) {
+        super(message);
+    }
+
+    public GraphExecutionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
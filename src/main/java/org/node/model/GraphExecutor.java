@@ -0,0 +1,33 @@
+package org.node.model;
+
+public class GraphExecutor implements GraphRunner {
+    private final ExecutionPlan plan;
+
+    public GraphExecutor(Graph graph) {
+        this(ExecutionPlan.build(graph));
+    }
+
+    public GraphExecutor(ExecutionPlan plan) {
+        this.plan = plan;
+    }
+
+    @Override
+    public Object[] run() {
+        Object[] values = new Object[plan.size()];
+        for (int step = 0; step < values.length; step++) {
+            try {
+                values[step] = plan.invoke(step, values);
+            } catch (GraphExecutionException e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new GraphExecutionException("Node '" + plan.getNode(step).getTitle() + "' failed", t);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public ExecutionPlan getPlan() {
+        return plan;
+    }
+}
@@ -0,0 +1,370 @@
+package org.node.model;
+
+import java.io.IOException;
+import java.lang.reflect.Executable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Binary graph file: magic, version and a section table, then a string table and
+// fixed-width node, pin, wire and default value records that refer to strings by index.
+// Opening maps each section read-only; records and strings are decoded when accessed.
+// Removed nodes stay as flagged records so node and pin ids survive a round trip, which
+// the change journal's entries refer to.
+public final class GraphFile {
+    private static final int MAGIC = 0x4A454746; // "JEGF"
+    private static final int VERSION = 2;
+
+    private static final int STRINGS = 1;
+    private static final int NODES = 2;
+    private static final int PINS = 3;
+    private static final int EDGES = 4;
+    private static final int DEFAULTS = 5;
+    private static final int META = 6;
+    private static final int[] SECTIONS = {META, NODES, PINS, EDGES, DEFAULTS, STRINGS};
+    private static final int SECTION_ENTRY = 20;
+
+    // Last change journal entry included in the file
+    private static final int META_SIZE = 8;
+    // x, y, title, executable signature or -1, first pin, pin count, type, flags
+    private static final int NODE_RECORD = 36;
+    private static final int REMOVED = 1;
+    // node, name, label, type, input
+    private static final int PIN_RECORD = 16;
+    // source pin, target pin
+    private static final int EDGE_RECORD = 8;
+    // pin, kind, value bits or string
+    private static final int DEFAULT_RECORD = 16;
+
+    private static final Node.NodeType[] NODE_TYPES = Node.NodeType.values();
+    private static final Pin.PinType[] PIN_TYPES = Pin.PinType.values();
+
+    private final ByteBuffer strings;
+    private final ByteBuffer nodes;
+    private final ByteBuffer pins;
+    private final ByteBuffer edges;
+    private final ByteBuffer defaults;
+    private final long sequence;
+    private final int stringCount;
+    private final int stringData;
+    private final String[] decoded;
+    private final Map<Integer, Executable> executables = new HashMap<>();
+
+    private GraphFile(ByteBuffer meta, ByteBuffer strings, ByteBuffer nodes, ByteBuffer pins, ByteBuffer edges,
+                      ByteBuffer defaults) {
+        this.sequence = meta.getLong(0);
+        this.strings = strings;
+        this.nodes = nodes;
+        this.pins = pins;
+        this.edges = edges;
+        this.defaults = defaults;
+        this.stringCount = strings.getInt(0);
+        this.stringData = 4 + (stringCount + 1) * 4;
+        this.decoded = new String[stringCount];
+    }
+
+    public static GraphFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = read(channel, 0, 12);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported graph file: " + file);
+            }
+            int sectionCount = header.getInt(8);
+            ByteBuffer table = read(channel, 12, sectionCount * SECTION_ENTRY);
+            Map<Integer, ByteBuffer> sections = new HashMap<>();
+            for (int i = 0; i < sectionCount; i++) {
+                int base = i * SECTION_ENTRY;
+                long offset = table.getLong(base + 4);
+                long length = table.getLong(base + 12);
+                if (offset < 0 || length < 0 || offset + length > size || length > Integer.MAX_VALUE) {
+                    throw new IOException("Corrupt section table in " + file);
+                }
+                sections.put(table.getInt(base), channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+            }
+            for (int id : SECTIONS) {
+                if (!sections.containsKey(id)) {
+                    throw new IOException("Missing section " + id + " in " + file);
+                }
+            }
+            if (sections.get(META).capacity() != META_SIZE || sections.get(NODES).capacity() % NODE_RECORD != 0 || sections.get(PINS).capacity() % PIN_RECORD != 0 ||
+                sections.get(EDGES).capacity() % EDGE_RECORD != 0 || sections.get(DEFAULTS).capacity() % DEFAULT_RECORD != 0) {
+                throw new IOException("Corrupt record section in " + file);
+            }
+            // The mappings stay valid after the channel is closed
+            return new GraphFile(sections.get(META), sections.get(STRINGS), sections.get(NODES), sections.get(PINS),
+                sections.get(EDGES), sections.get(DEFAULTS));
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of graph file");
+            }
+        }
+        return buffer;
+    }
+
+    public static void write(GraphStore store, Path file) throws IOException {
+        write(store, file, 0);
+    }
+
+    // Node and pin ids are written as they are; only dead wires are dropped
+    public static void write(GraphStore store, Path file, long sequence) throws IOException {
+        int capacity = store.getNodeCapacity();
+        List<String> table = new ArrayList<>();
+        Map<String, Integer> stringIds = new HashMap<>();
+        Map<Executable, Integer> signatureIds = new IdentityHashMap<>();
+        long[] offsets = new long[SECTIONS.length];
+
+        // Write next to the target and move into place so readers never see a partial file
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int headerSize = 12 + SECTIONS.length * SECTION_ENTRY;
+            Output out = new Output(channel, headerSize);
+
+            offsets[0] = out.position();
+            out.reserve(META_SIZE).putLong(sequence);
+
+            offsets[1] = out.position();
+            for (int node = 0; node < capacity; node++) {
+                Executable executable = store.getExecutable(node);
+                int signature = executable == null ? -1 : signatureIds.computeIfAbsent(executable,
+                    key -> intern(MethodRegistry.signatureOf(key), table, stringIds));
+                out.reserve(NODE_RECORD)
+                    .putDouble(store.getX(node))
+                    .putDouble(store.getY(node))
+                    .putInt(intern(store.getTitle(node), table, stringIds))
+                    .putInt(signature)
+                    .putInt(store.getFirstPin(node))
+                    .putInt(store.getPinCount(node))
+                    .put((byte) store.getType(node).ordinal())
+                    .put((byte) (store.isRemoved(node) ? REMOVED : 0))
+                    .putShort((short) 0);
+            }
+
+            offsets[2] = out.position();
+            for (int pin = 0; pin < store.getPinCount(); pin++) {
+                out.reserve(PIN_RECORD)
+                    .putInt(store.getPinNode(pin))
+                    .putInt(intern(store.getPinName(pin), table, stringIds))
+                    .putInt(intern(store.getPinLabel(pin), table, stringIds))
+                    .put((byte) store.getPinType(pin).ordinal())
+                    .put((byte) (store.isInput(pin) ? 1 : 0))
+                    .putShort((short) 0);
+            }
+
+            offsets[3] = out.position();
+            for (int edge = 0; edge < store.getEdgeCapacity(); edge++) {
+                if (store.getEdgeSource(edge) < 0) continue;
+                out.reserve(EDGE_RECORD)
+                    .putInt(store.getEdgeSource(edge))
+                    .putInt(store.getEdgeTarget(edge));
+            }
+
+            // Sorted by pin, which lets getDefaultValue binary search
+            offsets[4] = out.position();
+            for (int pin = 0; pin < store.getPinCount(); pin++) {
+                Object value = store.getDefaultValue(pin);
+                if (value == null) continue;
+                ValueKind kind = ValueKind.of(value);
+                out.reserve(DEFAULT_RECORD)
+                    .putInt(pin)
+                    .putInt(kind.ordinal())
+                    .putLong(kind == ValueKind.STRING ? intern((String) value, table, stringIds) : kind.toBits(value));
+            }
+
+            // Strings last, since the records above add to the table
+            offsets[5] = out.position();
+            byte[][] encoded = new byte[table.size()][];
+            out.reserve(4).putInt(encoded.length);
+            int end = 0;
+            out.reserve(4).putInt(0);
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = table.get(i).getBytes(StandardCharsets.UTF_8);
+                end += encoded[i].length;
+                out.reserve(4).putInt(end);
+            }
+            for (byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+            long fileEnd = out.position();
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(headerSize);
+            header.putInt(MAGIC).putInt(VERSION).putInt(SECTIONS.length);
+            for (int i = 0; i < SECTIONS.length; i++) {
+                long sectionEnd = i + 1 < SECTIONS.length ? offsets[i + 1] : fileEnd;
+                header.putInt(SECTIONS[i]).putLong(offsets[i]).putLong(sectionEnd - offsets[i]);
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Copies the whole file into an editable store with the same ids. Pins are restored
+    // by id rather than added, since adding renumbers them node by node and wires and
+    // defaults refer to the saved ids.
+    public GraphStore toStore() {
+        GraphStore store = new GraphStore();
+        for (int node = 0; node < getNodeCount(); node++) {
+            store.addNode(getTitle(node), getType(node), getX(node), getY(node), getExecutable(node));
+        }
+        for (int pin = 0; pin < getPinCount(); pin++) {
+            store.restorePin(pin, getPinNode(pin), getPinType(pin), getPinName(pin), getPinLabel(pin), isInput(pin));
+        }
+        for (int node = 0; node < getNodeCount(); node++) {
+            store.restorePinRange(node, getFirstPin(node), getPinCount(node));
+            if (isRemoved(node)) {
+                store.markRemoved(node);
+            }
+        }
+        for (int edge = 0; edge < getEdgeCount(); edge++) {
+            store.connect(getEdgeSource(edge), getEdgeTarget(edge));
+        }
+        for (int i = 0; i < getDefaultCount(); i++) {
+            int base = i * DEFAULT_RECORD;
+            store.setDefaultValue(defaults.getInt(base), decodeDefault(base));
+        }
+        return store;
+    }
+
+    public String getString(int index) {
+        String value = decoded[index];
+        if (value == null) {
+            int start = strings.getInt(4 + index * 4);
+            int end = strings.getInt(8 + index * 4);
+            byte[] bytes = new byte[end - start];
+            strings.get(stringData + start, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decoded[index] = value;
+        }
+        return value;
+    }
+
+    // Unresolvable signatures, such as classes missing from the classpath, yield null
+    public Executable getExecutable(int node) {
+        int signature = nodes.getInt(node * NODE_RECORD + 20);
+        if (signature < 0) return null;
+        return executables.computeIfAbsent(signature, id -> MethodRegistry.getDefault().find(getString(id)));
+    }
+
+    public String getSignature(int node) {
+        int signature = nodes.getInt(node * NODE_RECORD + 20);
+        return signature < 0 ? null : getString(signature);
+    }
+
+    public Object getDefaultValue(int pin) {
+        int low = 0;
+        int high = getDefaultCount() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int found = defaults.getInt(middle * DEFAULT_RECORD);
+            if (found < pin) {
+                low = middle + 1;
+            } else if (found > pin) {
+                high = middle - 1;
+            } else {
+                return decodeDefault(middle * DEFAULT_RECORD);
+            }
+        }
+        return null;
+    }
+
+    private Object decodeDefault(int base) {
+        ValueKind kind = ValueKind.get(defaults.getInt(base + 4));
+        long bits = defaults.getLong(base + 8);
+        return kind == ValueKind.STRING ? getString((int) bits) : kind.fromBits(bits);
+    }
+
+    private static int intern(String value, List<String> table, Map<String, Integer> ids) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = table.size();
+            table.add(value);
+            ids.put(value, id);
+        }
+        return id;
+    }
+
+    // Getters
+    public int getNodeCount() { return nodes.capacity() / NODE_RECORD; }
+    public int getPinCount() { return pins.capacity() / PIN_RECORD; }
+    public int getEdgeCount() { return edges.capacity() / EDGE_RECORD; }
+    public int getDefaultCount() { return defaults.capacity() / DEFAULT_RECORD; }
+    public int getStringCount() { return stringCount; }
+    public double getX(int node) { return nodes.getDouble(node * NODE_RECORD); }
+    public double getY(int node) { return nodes.getDouble(node * NODE_RECORD + 8); }
+    public String getTitle(int node) { return getString(nodes.getInt(node * NODE_RECORD + 16)); }
+    public int getFirstPin(int node) { return nodes.getInt(node * NODE_RECORD + 24); }
+    public int getPinCount(int node) { return nodes.getInt(node * NODE_RECORD + 28); }
+    public Node.NodeType getType(int node) { return NODE_TYPES[nodes.get(node * NODE_RECORD + 32)]; }
+    public boolean isRemoved(int node) { return (nodes.get(node * NODE_RECORD + 33) & REMOVED) != 0; }
+    public long getSequence() { return sequence; }
+    public int getPinNode(int pin) { return pins.getInt(pin * PIN_RECORD); }
+    public String getPinName(int pin) { return getString(pins.getInt(pin * PIN_RECORD + 4)); }
+    public String getPinLabel(int pin) { return getString(pins.getInt(pin * PIN_RECORD + 8)); }
+    public Pin.PinType getPinType(int pin) { return PIN_TYPES[pins.get(pin * PIN_RECORD + 12)]; }
+    public boolean isInput(int pin) { return pins.get(pin * PIN_RECORD + 13) != 0; }
+    public int getEdgeSource(int edge) { return edges.getInt(edge * EDGE_RECORD); }
+    public int getEdgeTarget(int edge) { return edges.getInt(edge * EDGE_RECORD + 4); }
+
+    // Buffered sequential writer over a channel, starting after the header
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private long position;
+
+        Output(FileChannel channel, long start) {
+            this.channel = channel;
+            this.position = start;
+        }
+
+        ByteBuffer reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) {
+                    position += channel.write(wrapped, position);
+                }
+                return;
+            }
+            reserve(bytes.length).put(bytes);
+        }
+
+        long position() {
+            return position + buffer.position();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+}
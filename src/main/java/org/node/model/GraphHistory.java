@@ -0,0 +1,78 @@
+package org.node.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Undo and redo over a graph's persistent states. A step is one state reference, and
+// consecutive states share everything the edit between them left alone, so the history
+// costs memory in proportion to what was changed. Edits between checkpoints, such as
+// every mouse move of a drag, collapse into a single step. The oldest steps are dropped
+// past the limit.
+public class GraphHistory {
+    public static final int DEFAULT_LIMIT = 500;
+
+    private final Graph graph;
+    private final int limit;
+    private final Deque<GraphState> undo = new ArrayDeque<>();
+    private final Deque<GraphState> redo = new ArrayDeque<>();
+    // State as of the last checkpoint
+    private GraphState current;
+
+    public GraphHistory(Graph graph) {
+        this(graph, DEFAULT_LIMIT);
+    }
+
+    public GraphHistory(Graph graph, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("History limit must be positive: " + limit);
+        }
+        this.graph = graph;
+        this.limit = limit;
+        this.current = graph.getState();
+    }
+
+    // Ends the current step; does nothing if the graph has not changed since the last one
+    public void checkpoint() {
+        GraphState state = graph.getState();
+        if (state == current) return;
+        undo.push(current);
+        if (undo.size() > limit) {
+            undo.removeLast();
+        }
+        redo.clear();
+        current = state;
+    }
+
+    public boolean undo() {
+        checkpoint();
+        if (undo.isEmpty()) return false;
+        redo.push(current);
+        current = undo.pop();
+        graph.restore(current);
+        return true;
+    }
+
+    public boolean redo() {
+        if (graph.getState() != current) {
+            // Edited since the last undo, the redo branch is gone
+            checkpoint();
+            return false;
+        }
+        if (redo.isEmpty()) return false;
+        undo.push(current);
+        current = redo.pop();
+        graph.restore(current);
+        return true;
+    }
+
+    public void clear() {
+        undo.clear();
+        redo.clear();
+        current = graph.getState();
+    }
+
+    // Getters
+    public boolean canUndo() { return !undo.isEmpty() || graph.getState() != current; }
+    public boolean canRedo() { return !redo.isEmpty() && graph.getState() == current; }
+    public int getLimit() { return limit; }
+}
@@ -0,0 +1,227 @@
+package org.node.model;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Executable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Streaming JSON form of a graph for interchange. Nodes carry their pins inline and
+// wires refer to pins by their position in the file, so "nodes" must precede
+// "connections". Neither side builds a tree of the whole document.
+public final class GraphJson {
+    private static final int VERSION = 1;
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private GraphJson() {
+    }
+
+    public static void write(GraphStore store, OutputStream out) throws IOException {
+        int[] firstPins = new int[store.getNodeCapacity()];
+        try (JsonGenerator json = FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeNumberField("version", VERSION);
+            json.writeArrayFieldStart("nodes");
+            int pinTotal = 0;
+            for (int node = 0; node < store.getNodeCapacity(); node++) {
+                if (store.isRemoved(node)) continue;
+                firstPins[node] = pinTotal;
+                pinTotal += store.getPinCount(node);
+                writeNode(store, node, json);
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("connections");
+            for (int edge = 0; edge < store.getEdgeCapacity(); edge++) {
+                int source = store.getEdgeSource(edge);
+                if (source < 0) continue;
+                int target = store.getEdgeTarget(edge);
+                json.writeStartArray();
+                json.writeNumber(firstPins[store.getPinNode(source)] + source - store.getFirstPin(store.getPinNode(source)));
+                json.writeNumber(firstPins[store.getPinNode(target)] + target - store.getFirstPin(store.getPinNode(target)));
+                json.writeEndArray();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private static void writeNode(GraphStore store, int node, JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("title", store.getTitle(node));
+        json.writeStringField("type", store.getType(node).name());
+        json.writeNumberField("x", store.getX(node));
+        json.writeNumberField("y", store.getY(node));
+        Executable executable = store.getExecutable(node);
+        if (executable != null) {
+            json.writeStringField("executable", MethodRegistry.signatureOf(executable));
+        }
+        json.writeArrayFieldStart("pins");
+        int first = store.getFirstPin(node);
+        for (int pin = first; pin < first + store.getPinCount(node); pin++) {
+            json.writeStartObject();
+            json.writeStringField("name", store.getPinName(pin));
+            json.writeStringField("label", store.getPinLabel(pin));
+            json.writeStringField("type", store.getPinType(pin).name());
+            json.writeBooleanField("input", store.isInput(pin));
+            Object value = store.getDefaultValue(pin);
+            if (value != null) {
+                ValueKind kind = ValueKind.of(value);
+                json.writeObjectFieldStart("default");
+                json.writeStringField("kind", kind.name());
+                json.writeStringField("value", String.valueOf(value));
+                json.writeEndObject();
+            }
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    public static GraphStore read(InputStream in) throws IOException {
+        GraphStore store = new GraphStore();
+        Map<String, Executable> executables = new HashMap<>();
+        try (JsonParser json = FACTORY.createParser(in)) {
+            expect(json, json.nextToken(), JsonToken.START_OBJECT);
+            while (json.nextToken() == JsonToken.FIELD_NAME) {
+                String field = json.getCurrentName();
+                JsonToken token = json.nextToken();
+                if ("version".equals(field)) {
+                    if (json.getIntValue() != VERSION) {
+                        throw new IOException("Unsupported graph version " + json.getText());
+                    }
+                } else if ("nodes".equals(field)) {
+                    expect(json, token, JsonToken.START_ARRAY);
+                    while (json.nextToken() != JsonToken.END_ARRAY) {
+                        readNode(store, executables, json);
+                    }
+                } else if ("connections".equals(field)) {
+                    expect(json, token, JsonToken.START_ARRAY);
+                    while (json.nextToken() != JsonToken.END_ARRAY) {
+                        expect(json, json.currentToken(), JsonToken.START_ARRAY);
+                        json.nextToken();
+                        int source = json.getIntValue();
+                        json.nextToken();
+                        int target = json.getIntValue();
+                        expect(json, json.nextToken(), JsonToken.END_ARRAY);
+                        store.connect(source, target);
+                    }
+                } else {
+                    json.skipChildren();
+                }
+            }
+        }
+        return store;
+    }
+
+    // Pins are buffered until the node's own fields are known, whatever their order
+    private static void readNode(GraphStore store, Map<String, Executable> executables, JsonParser json) throws IOException {
+        expect(json, json.currentToken(), JsonToken.START_OBJECT);
+        String title = null;
+        Node.NodeType type = Node.NodeType.FUNCTION;
+        double x = 0;
+        double y = 0;
+        Executable executable = null;
+        List<PinRecord> pins = new ArrayList<>();
+        while (json.nextToken() == JsonToken.FIELD_NAME) {
+            String field = json.getCurrentName();
+            JsonToken token = json.nextToken();
+            switch (field) {
+                case "title": title = json.getText(); break;
+                case "type": type = Node.NodeType.valueOf(json.getText()); break;
+                case "x": x = json.getDoubleValue(); break;
+                case "y": y = json.getDoubleValue(); break;
+                case "executable":
+                    // Unresolvable signatures, such as classes missing from the classpath, yield null
+                    executable = executables.computeIfAbsent(json.getText(), MethodRegistry.getDefault()::find);
+                    break;
+                case "pins":
+                    expect(json, token, JsonToken.START_ARRAY);
+                    while (json.nextToken() != JsonToken.END_ARRAY) {
+                        pins.add(readPin(json));
+                    }
+                    break;
+                default: json.skipChildren();
+            }
+        }
+        int node = store.addNode(title, type, x, y, executable);
+        for (PinRecord pin : pins) {
+            int id = store.addPin(node, pin.type, pin.name, pin.label, pin.input);
+            store.setDefaultValue(id, pin.defaultValue);
+        }
+    }
+
+    private static PinRecord readPin(JsonParser json) throws IOException {
+        expect(json, json.currentToken(), JsonToken.START_OBJECT);
+        PinRecord pin = new PinRecord();
+        while (json.nextToken() == JsonToken.FIELD_NAME) {
+            String field = json.getCurrentName();
+            JsonToken token = json.nextToken();
+            switch (field) {
+                case "name": pin.name = json.getText(); break;
+                case "label": pin.label = json.getText(); break;
+                case "type": pin.type = Pin.PinType.valueOf(json.getText()); break;
+                case "input": pin.input = json.getBooleanValue(); break;
+                case "default":
+                    expect(json, token, JsonToken.START_OBJECT);
+                    pin.defaultValue = readValue(json);
+                    break;
+                default: json.skipChildren();
+            }
+        }
+        return pin;
+    }
+
+    private static Object readValue(JsonParser json) throws IOException {
+        ValueKind kind = null;
+        String text = null;
+        while (json.nextToken() == JsonToken.FIELD_NAME) {
+            String field = json.getCurrentName();
+            json.nextToken();
+            if ("kind".equals(field)) {
+                kind = ValueKind.valueOf(json.getText());
+            } else if ("value".equals(field)) {
+                text = json.getText();
+            } else {
+                json.skipChildren();
+            }
+        }
+        if (kind == null || text == null) {
+            throw new IOException("Incomplete default value at " + json.getCurrentLocation());
+        }
+        switch (kind) {
+            case STRING: return text;
+            case BOOLEAN: return Boolean.parseBoolean(text);
+            case BYTE: return Byte.parseByte(text);
+            case SHORT: return Short.parseShort(text);
+            case CHAR: return text.charAt(0);
+            case INT: return Integer.parseInt(text);
+            case LONG: return Long.parseLong(text);
+            case FLOAT: return Float.parseFloat(text);
+            default: return Double.parseDouble(text);
+        }
+    }
+
+    private static void expect(JsonParser json, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual + " at " + json.getCurrentLocation());
+        }
+    }
+
+    private static class PinRecord {
+        String name;
+        String label;
+        Pin.PinType type = Pin.PinType.OBJECT;
+        boolean input;
+        Object defaultValue;
+    }
+}
@@ -0,0 +1,17 @@
+package org.node.model;
+
+public interface GraphRunner {
+    // Runs the graph once and returns the value produced by each plan step
+    Object[] run();
+
+    ExecutionPlan getPlan();
+
+    // Times the given number of runs; the editor times a single one, benchmarks repeat
+    default ExecutionStats measure(int runs) {
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            run();
+        }
+        return new ExecutionStats(runs, getPlan().size(), System.nanoTime() - start);
+    }
+}
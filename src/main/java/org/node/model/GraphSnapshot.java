@@ -0,0 +1,117 @@
+package org.node.model;
+
+import javafx.geometry.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A published version of a graph, safe to read from any thread while the graph keeps
+// being edited. It wraps an immutable GraphState, so taking one costs a volatile read and
+// nothing a reader does can see a later edit. The lists and indexes a reader asks for are
+// built on first use by that reader, not by the thread doing the editing.
+public final class GraphSnapshot {
+    private final GraphState state;
+    // Topological ranks of the same version, see TopologicalOrder
+    private final PersistentMap<Node, Integer> ranks;
+    private final long version;
+    // Derived on demand; recomputing after a race gives an equal result
+    private volatile List<Node> nodes;
+    private volatile List<Node> topologicalOrder;
+    private volatile List<Connection> connections;
+    private volatile Map<Pin, List<Connection>> outgoing;
+
+    GraphSnapshot(GraphState state, PersistentMap<Node, Integer> ranks, long version) {
+        this.state = state;
+        this.ranks = ranks;
+        this.version = version;
+    }
+
+    public boolean contains(Node node) {
+        return state.contains(node);
+    }
+
+    public Point2D getPosition(Node node) {
+        return state.getPosition(node);
+    }
+
+    public Connection getIncoming(Pin inputPin) {
+        return state.getIncoming(inputPin);
+    }
+
+    public Object getDefaultValue(Pin pin) {
+        return state.getDefaultValue(pin);
+    }
+
+    // Nodes in the order they were added
+    public List<Node> getNodes() {
+        List<Node> result = nodes;
+        if (result == null) {
+            Map<Node, Long> order = new HashMap<>();
+            state.forEachNode(order::put);
+            List<Node> sorted = new ArrayList<>(order.keySet());
+            sorted.sort(Comparator.comparing(order::get));
+            nodes = result = Collections.unmodifiableList(sorted);
+        }
+        return result;
+    }
+
+    // Every node after the nodes wired into it
+    public List<Node> getTopologicalOrder() {
+        List<Node> result = topologicalOrder;
+        if (result == null) {
+            Node[] sorted = new Node[ranks.size()];
+            int[] keys = new int[ranks.size()];
+            int[] i = {0};
+            ranks.forEach((node, rank) -> {
+                sorted[i[0]] = node;
+                keys[i[0]++] = rank;
+            });
+            sortByRank(sorted, keys);
+            topologicalOrder = result = Collections.unmodifiableList(Arrays.asList(sorted));
+        }
+        return result;
+    }
+
+    // Ranks are distinct ints, so sort them as longs carrying the node's slot
+    private static void sortByRank(Node[] nodes, int[] ranks) {
+        long[] packed = new long[ranks.length];
+        for (int i = 0; i < ranks.length; i++) {
+            packed[i] = (long) ranks[i] << 32 | i;
+        }
+        Arrays.sort(packed);
+        Node[] source = nodes.clone();
+        for (int i = 0; i < packed.length; i++) {
+            nodes[i] = source[(int) packed[i]];
+        }
+    }
+
+    public List<Connection> getConnections() {
+        List<Connection> result = connections;
+        if (result == null) {
+            List<Connection> wires = new ArrayList<>(state.getConnectionCount());
+            state.forEachWire((pin, connection) -> wires.add(connection));
+            connections = result = Collections.unmodifiableList(wires);
+        }
+        return result;
+    }
+
+    public List<Connection> getOutgoing(Pin outputPin) {
+        Map<Pin, List<Connection>> index = outgoing;
+        if (index == null) {
+            index = new HashMap<>();
+            for (Connection connection : getConnections()) {
+                index.computeIfAbsent(connection.getSourcePin(), pin -> new ArrayList<>()).add(connection);
+            }
+            outgoing = index;
+        }
+        return index.getOrDefault(outputPin, Collections.emptyList());
+    }
+
+    // Getters
+    public GraphState getState() { return state; }
+    public long getVersion() { return version; }
+}
@@ -0,0 +1,140 @@
+package org.node.model;
+
+import javafx.geometry.Point2D;
+import java.util.function.BiConsumer;
+
+// One version of a graph's editable state: which nodes it holds, in what order and where,
+// which wire feeds each input pin, and the pins' default values. Every map is persistent,
+// so the graph makes a new state on every edit for the cost of a few trie nodes, and
+// older states stay valid for undo and for readers on other threads.
+public final class GraphState {
+    static final GraphState EMPTY = new GraphState(PersistentMap.empty(), PersistentMap.empty(),
+        PersistentMap.empty(), PersistentMap.empty(), 0);
+
+    private final PersistentMap<Node, Point2D> positions;
+    // Insertion order, so readers list nodes the way the graph does
+    private final PersistentMap<Node, Long> sequence;
+    // Keyed by target pin, an input takes a single wire
+    private final PersistentMap<Pin, Connection> wires;
+    // Only pins that have one
+    private final PersistentMap<Pin, Object> defaults;
+    private final long nextSequence;
+
+    private GraphState(PersistentMap<Node, Point2D> positions, PersistentMap<Node, Long> sequence,
+                       PersistentMap<Pin, Connection> wires, PersistentMap<Pin, Object> defaults, long nextSequence) {
+        this.positions = positions;
+        this.sequence = sequence;
+        this.wires = wires;
+        this.defaults = defaults;
+        this.nextSequence = nextSequence;
+    }
+
+    GraphState withNode(Node node) {
+        PersistentMap<Pin, Object> values = defaults;
+        for (Pin pin : node.getInputPins()) {
+            if (pin.getDefaultValue() != null) values = values.put(pin, pin.getDefaultValue());
+        }
+        for (Pin pin : node.getOutputPins()) {
+            if (pin.getDefaultValue() != null) values = values.put(pin, pin.getDefaultValue());
+        }
+        return new GraphState(positions.put(node, node.getPosition()), sequence.put(node, nextSequence),
+            wires, values, nextSequence + 1);
+    }
+
+    GraphState withoutNode(Node node) {
+        PersistentMap<Pin, Object> values = defaults;
+        for (Pin pin : node.getInputPins()) {
+            values = values.remove(pin);
+        }
+        for (Pin pin : node.getOutputPins()) {
+            values = values.remove(pin);
+        }
+        return new GraphState(positions.remove(node), sequence.remove(node), wires, values, nextSequence);
+    }
+
+    GraphState withPosition(Node node, Point2D position) {
+        return new GraphState(positions.put(node, position), sequence, wires, defaults, nextSequence);
+    }
+
+    GraphState withWire(Connection connection) {
+        return new GraphState(positions, sequence, wires.put(connection.getTargetPin(), connection), defaults, nextSequence);
+    }
+
+    GraphState withoutWire(Connection connection) {
+        return new GraphState(positions, sequence, wires.remove(connection.getTargetPin()), defaults, nextSequence);
+    }
+
+    GraphState withDefault(Pin pin, Object value) {
+        PersistentMap<Pin, Object> values = value != null ? defaults.put(pin, value) : defaults.remove(pin);
+        return new GraphState(positions, sequence, wires, values, nextSequence);
+    }
+
+    public boolean contains(Node node) {
+        return positions.containsKey(node);
+    }
+
+    public Point2D getPosition(Node node) {
+        return positions.get(node);
+    }
+
+    public Connection getIncoming(Pin inputPin) {
+        return wires.get(inputPin);
+    }
+
+    public Object getDefaultValue(Pin pin) {
+        return defaults.get(pin);
+    }
+
+    void forEachNode(BiConsumer<Node, Long> action) {
+        sequence.forEach(action);
+    }
+
+    void forEachWire(BiConsumer<Pin, Connection> action) {
+        wires.forEach(action);
+    }
+
+    // Walks only the branches the two versions do not share
+    public void diff(GraphState other, Changes changes) {
+        positions.diff(other.positions, new PersistentMap.Changes<>() {
+            @Override
+            public void added(Node node, Point2D position) { changes.nodeAdded(node, position); }
+            @Override
+            public void removed(Node node, Point2D position) { changes.nodeRemoved(node); }
+            @Override
+            public void changed(Node node, Point2D before, Point2D after) { changes.nodeMoved(node, after); }
+        });
+        wires.diff(other.wires, new PersistentMap.Changes<>() {
+            @Override
+            public void added(Pin pin, Connection connection) { changes.connected(connection); }
+            @Override
+            public void removed(Pin pin, Connection connection) { changes.disconnected(connection); }
+            @Override
+            public void changed(Pin pin, Connection before, Connection after) {
+                changes.disconnected(before);
+                changes.connected(after);
+            }
+        });
+        defaults.diff(other.defaults, new PersistentMap.Changes<>() {
+            @Override
+            public void added(Pin pin, Object value) { changes.defaultChanged(pin, value); }
+            @Override
+            public void removed(Pin pin, Object value) { changes.defaultChanged(pin, null); }
+            @Override
+            public void changed(Pin pin, Object before, Object after) { changes.defaultChanged(pin, after); }
+        });
+    }
+
+    public interface Changes {
+        void nodeAdded(Node node, Point2D position);
+        void nodeRemoved(Node node);
+        void nodeMoved(Node node, Point2D position);
+        void connected(Connection connection);
+        void disconnected(Connection connection);
+        default void defaultChanged(Pin pin, Object value) {
+        }
+    }
+
+    // Getters
+    public int getNodeCount() { return positions.size(); }
+    public int getConnectionCount() { return wires.size(); }
+}
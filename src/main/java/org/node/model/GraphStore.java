@@ -0,0 +1,506 @@
+package org.node.model;
+
+import javafx.geometry.Point2D;
+import javafx.scene.paint.Color;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.Type;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+// Dense graph for very large projects. Nodes, pins and wires are int ids into parallel
+// primitive arrays; titles and labels are interned in one string table. A node's pins
+// occupy one contiguous id range. Wires are an edge list with CSR indexes by source and
+// target node, rebuilt on the first adjacency query after a change. node(), pin() and
+// connection() wrap an id in the regular object API for code written against it.
+public class GraphStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Node.NodeType[] NODE_TYPES = Node.NodeType.values();
+    private static final Pin.PinType[] PIN_TYPES = Pin.PinType.values();
+    private static final byte FLOW = (byte) Pin.PinType.FLOW.ordinal();
+
+    // Nodes
+    private int nodeCount;
+    private double[] nodeX = new double[INITIAL_CAPACITY];
+    private double[] nodeY = new double[INITIAL_CAPACITY];
+    private int[] nodeTitle = new int[INITIAL_CAPACITY];
+    private byte[] nodeType = new byte[INITIAL_CAPACITY];
+    private int[] nodeExecutable = new int[INITIAL_CAPACITY];
+    private int[] nodeFirstPin = new int[INITIAL_CAPACITY];
+    private int[] nodePinCount = new int[INITIAL_CAPACITY];
+    private final BitSet removedNodes = new BitSet();
+
+    // Pins
+    private int pinCount;
+    private int[] pinNode = new int[INITIAL_CAPACITY];
+    private byte[] pinType = new byte[INITIAL_CAPACITY];
+    private int[] pinName = new int[INITIAL_CAPACITY];
+    private int[] pinLabel = new int[INITIAL_CAPACITY];
+    private int[] pinIncoming = new int[INITIAL_CAPACITY];
+    private final BitSet inputPins = new BitSet();
+    private final Map<Integer, Object> defaultValues = new HashMap<>();
+
+    // Wires, -1 endpoints mark a removed wire
+    private int edgeCount;
+    private int liveEdges;
+    private int[] edgeSource = new int[INITIAL_CAPACITY];
+    private int[] edgeTarget = new int[INITIAL_CAPACITY];
+    private int[] outOffsets;
+    private int[] outEdges;
+    private int[] inOffsets;
+    private int[] inEdges;
+    private boolean adjacencyValid;
+
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<Executable> executables = new ArrayList<>();
+    private final Map<Executable, Integer> executableIds = new HashMap<>();
+
+    public int addNode(String title, Node.NodeType type, double x, double y, Executable executable) {
+        if (nodeCount == nodeX.length) {
+            int capacity = nodeCount * 2;
+            nodeX = Arrays.copyOf(nodeX, capacity);
+            nodeY = Arrays.copyOf(nodeY, capacity);
+            nodeTitle = Arrays.copyOf(nodeTitle, capacity);
+            nodeType = Arrays.copyOf(nodeType, capacity);
+            nodeExecutable = Arrays.copyOf(nodeExecutable, capacity);
+            nodeFirstPin = Arrays.copyOf(nodeFirstPin, capacity);
+            nodePinCount = Arrays.copyOf(nodePinCount, capacity);
+        }
+        int id = nodeCount++;
+        nodeX[id] = x;
+        nodeY[id] = y;
+        nodeTitle[id] = intern(title);
+        nodeType[id] = (byte) type.ordinal();
+        nodeFirstPin[id] = pinCount;
+        nodePinCount[id] = 0;
+        setExecutable(id, executable);
+        adjacencyValid = false;
+        return id;
+    }
+
+    // A node's pins stay contiguous: adding to a node whose pins are not the last ones moves
+    // them to the end first. They get new ids and their old ids are left unused.
+    public int addPin(int node, Pin.PinType type, String name, String label, boolean input) {
+        checkNode(node);
+        if (nodeFirstPin[node] + nodePinCount[node] != pinCount) {
+            movePinsToEnd(node);
+        }
+        ensurePinCapacity(pinCount + 1);
+        int id = pinCount++;
+        pinNode[id] = node;
+        pinType[id] = (byte) type.ordinal();
+        pinName[id] = intern(name);
+        pinLabel[id] = intern(label);
+        pinIncoming[id] = -1;
+        inputPins.set(id, input);
+        nodePinCount[node]++;
+        return id;
+    }
+
+    private void ensurePinCapacity(int capacity) {
+        if (capacity <= pinNode.length) return;
+        capacity = Math.max(capacity, pinNode.length * 2);
+        pinNode = Arrays.copyOf(pinNode, capacity);
+        pinType = Arrays.copyOf(pinType, capacity);
+        pinName = Arrays.copyOf(pinName, capacity);
+        pinLabel = Arrays.copyOf(pinLabel, capacity);
+        pinIncoming = Arrays.copyOf(pinIncoming, capacity);
+    }
+
+    // Pin read back under the id it was saved with; slots left unused by a move are restored too
+    void restorePin(int id, int node, Pin.PinType type, String name, String label, boolean input) {
+        ensurePinCapacity(id + 1);
+        pinNode[id] = node;
+        pinType[id] = (byte) type.ordinal();
+        pinName[id] = intern(name);
+        pinLabel[id] = intern(label);
+        pinIncoming[id] = -1;
+        inputPins.set(id, input);
+        pinCount = Math.max(pinCount, id + 1);
+    }
+
+    // The saved pin range of a node, once its pins are restored
+    void restorePinRange(int node, int first, int count) {
+        nodeFirstPin[node] = first;
+        nodePinCount[node] = count;
+    }
+
+    // Wires and default values follow the pins to their new ids
+    private void movePinsToEnd(int node) {
+        int first = nodeFirstPin[node];
+        int count = nodePinCount[node];
+        int moved = pinCount;
+        ensurePinCapacity(moved + count);
+        forEachOutgoing(node, edge -> edgeSource[edge] += moved - first);
+        for (int i = 0; i < count; i++) {
+            int from = first + i;
+            int to = moved + i;
+            pinNode[to] = node;
+            pinType[to] = pinType[from];
+            pinName[to] = pinName[from];
+            pinLabel[to] = pinLabel[from];
+            pinIncoming[to] = pinIncoming[from];
+            if (pinIncoming[from] >= 0) {
+                edgeTarget[pinIncoming[from]] = to;
+                pinIncoming[from] = -1;
+            }
+            inputPins.set(to, inputPins.get(from));
+            Object value = defaultValues.remove(from);
+            if (value != null) {
+                defaultValues.put(to, value);
+            }
+        }
+        pinCount += count;
+        nodeFirstPin[node] = moved;
+    }
+
+    public void removeNode(int node) {
+        checkNode(node);
+        int first = nodeFirstPin[node];
+        List<Integer> wires = new ArrayList<>();
+        forEachOutgoing(node, wires::add);
+        forEachIncoming(node, wires::add);
+        for (int edge : wires) {
+            disconnect(edge);
+        }
+        for (int pin = first; pin < first + nodePinCount[node]; pin++) {
+            defaultValues.remove(pin);
+        }
+        removedNodes.set(node);
+        adjacencyValid = false;
+    }
+
+    // For nodes known to have no wires, such as tombstones read back from a file
+    void markRemoved(int node) {
+        checkNode(node);
+        removedNodes.set(node);
+        adjacencyValid = false;
+    }
+
+    // Output to input, one wire per input, and flow pins only with flow pins. The store keeps
+    // no Java types, so any two data pins may be wired; Graph.connect checked their types
+    // before the wire got here.
+    public int connect(int sourcePin, int targetPin) {
+        boolean flow = pinType[sourcePin] == FLOW;
+        if (isInput(sourcePin) || !isInput(targetPin) || flow != (pinType[targetPin] == FLOW)) {
+            throw new IllegalArgumentException("Cannot connect pin " + sourcePin + " to pin " + targetPin);
+        }
+        if (pinIncoming[targetPin] >= 0) {
+            disconnect(pinIncoming[targetPin]);
+        }
+        if (edgeCount == edgeSource.length) {
+            edgeSource = Arrays.copyOf(edgeSource, edgeCount * 2);
+            edgeTarget = Arrays.copyOf(edgeTarget, edgeCount * 2);
+        }
+        int edge = edgeCount++;
+        edgeSource[edge] = sourcePin;
+        edgeTarget[edge] = targetPin;
+        pinIncoming[targetPin] = edge;
+        liveEdges++;
+        adjacencyValid = false;
+        return edge;
+    }
+
+    public void disconnect(int edge) {
+        if (edgeSource[edge] < 0) return;
+        pinIncoming[edgeTarget[edge]] = -1;
+        edgeSource[edge] = -1;
+        edgeTarget[edge] = -1;
+        liveEdges--;
+        adjacencyValid = false;
+    }
+
+    public void forEachOutgoing(int node, IntConsumer edgeAction) {
+        ensureAdjacency();
+        for (int i = outOffsets[node]; i < outOffsets[node + 1]; i++) {
+            edgeAction.accept(outEdges[i]);
+        }
+    }
+
+    public void forEachIncoming(int node, IntConsumer edgeAction) {
+        ensureAdjacency();
+        for (int i = inOffsets[node]; i < inOffsets[node + 1]; i++) {
+            edgeAction.accept(inEdges[i]);
+        }
+    }
+
+    // Counting sort of live edges by source node and by target node
+    private void ensureAdjacency() {
+        if (adjacencyValid) return;
+        outOffsets = new int[nodeCount + 1];
+        inOffsets = new int[nodeCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (edgeSource[edge] < 0) continue;
+            outOffsets[pinNode[edgeSource[edge]] + 1]++;
+            inOffsets[pinNode[edgeTarget[edge]] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            outOffsets[node + 1] += outOffsets[node];
+            inOffsets[node + 1] += inOffsets[node];
+        }
+        outEdges = new int[liveEdges];
+        inEdges = new int[liveEdges];
+        int[] outFill = Arrays.copyOf(outOffsets, nodeCount);
+        int[] inFill = Arrays.copyOf(inOffsets, nodeCount);
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (edgeSource[edge] < 0) continue;
+            outEdges[outFill[pinNode[edgeSource[edge]]]++] = edge;
+            inEdges[inFill[pinNode[edgeTarget[edge]]]++] = edge;
+        }
+        adjacencyValid = true;
+    }
+
+    // Copies an object graph into a store; pins keep their order within each node
+    public static GraphStore of(Graph graph) {
+        return of(graph.snapshot());
+    }
+
+    // Safe off the editing thread, e.g. for an autosave of the version being edited
+    public static GraphStore of(GraphSnapshot graph) {
+        GraphStore store = new GraphStore();
+        Map<Pin, Integer> pinIds = new HashMap<>();
+        for (Node node : graph.getNodes()) {
+            Point2D position = graph.getPosition(node);
+            int id = store.addNode(node.getTitle(), node.getType(), position.getX(), position.getY(),
+                node.getExecutable());
+            for (Pin pin : node.getInputPins()) {
+                pinIds.put(pin, store.copyPin(id, pin, graph.getDefaultValue(pin)));
+            }
+            for (Pin pin : node.getOutputPins()) {
+                pinIds.put(pin, store.copyPin(id, pin, graph.getDefaultValue(pin)));
+            }
+        }
+        for (Connection connection : graph.getConnections()) {
+            store.connect(pinIds.get(connection.getSourcePin()), pinIds.get(connection.getTargetPin()));
+        }
+        return store;
+    }
+
+    // Independent copy, e.g. for writing a snapshot on another thread while editing goes on
+    public GraphStore copy() {
+        GraphStore copy = new GraphStore();
+        copy.nodeCount = nodeCount;
+        copy.nodeX = nodeX.clone();
+        copy.nodeY = nodeY.clone();
+        copy.nodeTitle = nodeTitle.clone();
+        copy.nodeType = nodeType.clone();
+        copy.nodeExecutable = nodeExecutable.clone();
+        copy.nodeFirstPin = nodeFirstPin.clone();
+        copy.nodePinCount = nodePinCount.clone();
+        copy.removedNodes.or(removedNodes);
+        copy.pinCount = pinCount;
+        copy.pinNode = pinNode.clone();
+        copy.pinType = pinType.clone();
+        copy.pinName = pinName.clone();
+        copy.pinLabel = pinLabel.clone();
+        copy.pinIncoming = pinIncoming.clone();
+        copy.inputPins.or(inputPins);
+        copy.defaultValues.putAll(defaultValues);
+        copy.edgeCount = edgeCount;
+        copy.liveEdges = liveEdges;
+        copy.edgeSource = edgeSource.clone();
+        copy.edgeTarget = edgeTarget.clone();
+        copy.strings.addAll(strings);
+        copy.stringIds.putAll(stringIds);
+        copy.executables.addAll(executables);
+        copy.executableIds.putAll(executableIds);
+        return copy;
+    }
+
+    private int copyPin(int node, Pin pin, Object defaultValue) {
+        int id = addPin(node, pin.getType(), pin.getId(), pin.getLabel(), pin.isInput());
+        if (defaultValue != null) {
+            defaultValues.put(id, defaultValue);
+        }
+        return id;
+    }
+
+    private int intern(String value) {
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = strings.size();
+            strings.add(value);
+            stringIds.put(value, id);
+        }
+        return id;
+    }
+
+    private void checkNode(int node) {
+        if (node < 0 || node >= nodeCount || removedNodes.get(node)) {
+            throw new IllegalArgumentException("No node " + node);
+        }
+    }
+
+    public void setPosition(int node, double x, double y) {
+        nodeX[node] = x;
+        nodeY[node] = y;
+    }
+
+    public void setExecutable(int node, Executable executable) {
+        checkNode(node);
+        nodeExecutable[node] = executable == null ? -1 : executableIds.computeIfAbsent(executable, key -> {
+            executables.add(key);
+            return executables.size() - 1;
+        });
+    }
+
+    public void setDefaultValue(int pin, Object value) {
+        if (value == null) {
+            defaultValues.remove(pin);
+        } else {
+            defaultValues.put(pin, value);
+        }
+    }
+
+    public Node node(int id) {
+        checkNode(id);
+        return new NodeRef(this, id);
+    }
+
+    public Pin pin(int id) {
+        return new PinRef(this, id);
+    }
+
+    public Connection connection(int edge) {
+        if (edgeSource[edge] < 0) {
+            throw new IllegalArgumentException("No wire " + edge);
+        }
+        return new Connection(pin(edgeSource[edge]), pin(edgeTarget[edge]));
+    }
+
+    // Getters
+    public int getNodeCount() { return nodeCount - removedNodes.cardinality(); }
+    public int getNodeCapacity() { return nodeCount; }
+    public int getPinCount() { return pinCount; }
+    public int getEdgeCount() { return liveEdges; }
+    public int getEdgeCapacity() { return edgeCount; }
+    public boolean isRemoved(int node) { return removedNodes.get(node); }
+    public double getX(int node) { return nodeX[node]; }
+    public double getY(int node) { return nodeY[node]; }
+    public String getTitle(int node) { return strings.get(nodeTitle[node]); }
+    public Node.NodeType getType(int node) { return NODE_TYPES[nodeType[node]]; }
+    public Executable getExecutable(int node) { return nodeExecutable[node] < 0 ? null : executables.get(nodeExecutable[node]); }
+    public int getFirstPin(int node) { return nodeFirstPin[node]; }
+    public int getPinCount(int node) { return nodePinCount[node]; }
+    public int getPinNode(int pin) { return pinNode[pin]; }
+    public Pin.PinType getPinType(int pin) { return PIN_TYPES[pinType[pin]]; }
+    public String getPinName(int pin) { return strings.get(pinName[pin]); }
+    public String getPinLabel(int pin) { return strings.get(pinLabel[pin]); }
+    public boolean isInput(int pin) { return inputPins.get(pin); }
+    public Object getDefaultValue(int pin) { return defaultValues.get(pin); }
+    public int getIncoming(int pin) { return pinIncoming[pin]; }
+    public int getEdgeSource(int edge) { return edgeSource[edge]; }
+    public int getEdgeTarget(int edge) { return edgeTarget[edge]; }
+
+    // Node API over a store id; equal to any other view of the same id
+    private static class NodeRef extends Node {
+        private final GraphStore store;
+        private final int id;
+
+        NodeRef(GraphStore store, int id) {
+            this.store = store;
+            this.id = id;
+        }
+
+        @Override
+        public void addInputPin(Pin pin) {
+            store.copyPin(id, pin, pin.getDefaultValue());
+        }
+
+        @Override
+        public void addOutputPin(Pin pin) {
+            store.copyPin(id, pin, pin.getDefaultValue());
+        }
+
+        @Override public String getId() { return "n" + id; }
+        @Override public String getTitle() { return store.getTitle(id); }
+        @Override public Point2D getPosition() { return new Point2D(store.nodeX[id], store.nodeY[id]); }
+        @Override public void setPosition(Point2D position) { store.setPosition(id, position.getX(), position.getY()); }
+        @Override public List<Pin> getInputPins() { return pins(true); }
+        @Override public List<Pin> getOutputPins() { return pins(false); }
+        @Override public NodeType getType() { return store.getType(id); }
+        @Override public Executable getExecutable() { return store.getExecutable(id); }
+
+        @Override public void setExecutable(Executable executable) { store.setExecutable(id, executable); }
+
+        private List<Pin> pins(boolean input) {
+            int first = store.nodeFirstPin[id];
+            int end = first + store.nodePinCount[id];
+            int count = 0;
+            for (int pin = first; pin < end; pin++) {
+                if (store.isInput(pin) == input) count++;
+            }
+            int[] ids = new int[count];
+            for (int pin = first, i = 0; pin < end; pin++) {
+                if (store.isInput(pin) == input) ids[i++] = pin;
+            }
+            return new AbstractList<Pin>() {
+                @Override
+                public Pin get(int index) {
+                    return store.pin(ids[index]);
+                }
+
+                @Override
+                public int size() {
+                    return ids.length;
+                }
+            };
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof NodeRef && ((NodeRef) other).store == store && ((NodeRef) other).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+    }
+
+    private static class PinRef extends Pin {
+        private final GraphStore store;
+        private final int id;
+
+        PinRef(GraphStore store, int id) {
+            this.store = store;
+            this.id = id;
+        }
+
+        @Override public String getId() { return store.getPinName(id); }
+        @Override public PinType getType() { return store.getPinType(id); }
+        @Override public String getLabel() { return store.getPinLabel(id); }
+        // Position and an owning object node, when one adopts this pin, are kept on the view like
+        // on any pin; otherwise the parent is the stored node
+        @Override
+        public Node getParentNode() {
+            Node parent = super.getParentNode();
+            return parent != null ? parent : store.node(store.pinNode[id]);
+        }
+
+        @Override public boolean isInput() { return store.isInput(id); }
+        @Override public Color getColor() { return colorOf(getType()); }
+        @Override public PinTemplate getTemplate() { return null; }
+        @Override public Type getGenericType() { return null; }
+        @Override public Class<?> getJavaType() { return null; }
+        @Override public Object getDefaultValue() { return store.getDefaultValue(id); }
+        @Override public void setDefaultValue(Object defaultValue) { store.setDefaultValue(id, defaultValue); }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof PinRef && ((PinRef) other).store == store && ((PinRef) other).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.node.model;
+
+import javafx.geometry.Point2D;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Maps full signatures such as "java.util.ArrayList#add(int,java.lang.Object)" or
+// "java.util.HashMap#<init>(int)" to their executable. A class is reflected over once,
+// the first time any of its signatures is looked up; handles are resolved on first use.
+public class MethodRegistry {
+    private static final MethodRegistry DEFAULT = new MethodRegistry();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> registeredClasses = ConcurrentHashMap.newKeySet();
+
+    public static MethodRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public static String signatureOf(Executable executable) {
+        String name = executable instanceof Constructor ? CatalogMethod.CONSTRUCTOR_NAME : executable.getName();
+        StringJoiner params = new StringJoiner(",", "(", ")");
+        for (Class<?> type : executable.getParameterTypes()) {
+            params.add(type.getTypeName());
+        }
+        return executable.getDeclaringClass().getName() + "#" + name + params;
+    }
+
+    public static String signatureOf(CatalogClass cls, CatalogMethod method) {
+        return cls.getName() + "#" + method.getName() + "(" + String.join(",", method.getParameterTypeNames()) + ")";
+    }
+
+    public static String classNameOf(String signature) {
+        int hash = signature.indexOf('#');
+        if (hash < 0) {
+            throw new IllegalArgumentException("Not a method signature: " + signature);
+        }
+        return signature.substring(0, hash);
+    }
+
+    public Executable find(String signature) {
+        Entry entry = entries.get(signature);
+        if (entry == null) {
+            registerClass(classNameOf(signature));
+            entry = entries.get(signature);
+        }
+        return entry != null ? entry.executable : null;
+    }
+
+    public MethodHandle handle(String signature) {
+        Executable executable = find(signature);
+        if (executable == null) {
+            throw new GraphExecutionException("Unknown method " + signature);
+        }
+        return entries.get(signature).handle();
+    }
+
+    // Direct handle, receiver first for instance methods
+    public MethodHandle handle(Executable executable) {
+        return entries.computeIfAbsent(signatureOf(executable), key -> new Entry(executable)).handle();
+    }
+
+    public Node createNode(String signature, Point2D position) {
+        Executable executable = find(signature);
+        if (executable == null) {
+            throw new IllegalArgumentException("Unknown method " + signature);
+        }
+        if (executable instanceof Constructor) {
+            return ClassScanner.createConstructorNode((Constructor<?>) executable, position);
+        }
+        return ClassScanner.createMethodNode((Method) executable, position);
+    }
+
+    // Registers every public method and constructor under the class's own name,
+    // inherited ones included, so lookups through a subclass resolve too
+    private synchronized void registerClass(String className) {
+        if (!registeredClasses.add(className)) return;
+        Class<?> cls;
+        try {
+            cls = Class.forName(className, false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return;
+        }
+        for (Constructor<?> constructor : cls.getConstructors()) {
+            entries.putIfAbsent(signatureOf(constructor), new Entry(constructor));
+        }
+        for (Method method : cls.getMethods()) {
+            if (method.isBridge() || method.isSynthetic()) continue;
+            entries.putIfAbsent(signatureOf(method), new Entry(method));
+            String viaClass = className + signatureOf(method).substring(method.getDeclaringClass().getName().length());
+            entries.putIfAbsent(viaClass, new Entry(method));
+        }
+    }
+
+    private static class Entry {
+        private final Executable executable;
+        private volatile MethodHandle handle;
+
+        Entry(Executable executable) {
+            this.executable = executable;
+        }
+
+        MethodHandle handle() {
+            MethodHandle result = handle;
+            if (result == null) {
+                result = unreflect(executable);
+                handle = result;
+            }
+            return result;
+        }
+
+        private static MethodHandle unreflect(Executable executable) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                if (executable instanceof Method) {
+                    return lookup.unreflect((Method) executable).asFixedArity();
+                }
+                return lookup.unreflectConstructor((Constructor<?>) executable).asFixedArity();
+            } catch (IllegalAccessException e) {
+                throw new GraphExecutionException("Cannot access " + executable, e);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.node.model;
 
 import javafx.geometry.Point2D;
+import java.lang.reflect.Executable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -12,6 +13,7 @@ public class Node {
     private List<Pin> inputPins;
     private List<Pin> outputPins;
     private NodeType type;
+    private Executable executable;
 
     public enum NodeType {
         FUNCTION,
@@ -22,8 +24,11 @@ public class Node {
         LOOP
     }
 
+    // For views whose state lives elsewhere, see GraphStore
+    protected Node() {
+    }
+
     public Node(String title, NodeType type, Point2D position) {
-        this.id = UUID.randomUUID().toString();
         this.title = title;
         this.type = type;
         this.position = position;
@@ -31,6 +36,22 @@ public class Node {
         this.outputPins = new ArrayList<>();
     }
 
+    // Shares the template's title and pin templates; the id is assigned on first use
+    Node(NodeTemplate template, Point2D position) {
+        this.title = template.getTitle();
+        this.type = template.getType();
+        this.position = position;
+        this.executable = template.getExecutable();
+        this.inputPins = new ArrayList<>(template.getInputs().size());
+        this.outputPins = new ArrayList<>(template.getOutputs().size());
+        for (PinTemplate pin : template.getInputs()) {
+            addInputPin(new Pin(pin));
+        }
+        for (PinTemplate pin : template.getOutputs()) {
+            addOutputPin(new Pin(pin));
+        }
+    }
+
     public void addInputPin(Pin pin) {
         pin.setParentNode(this);
         inputPins.add(pin);
@@ -42,11 +63,18 @@ public class Node {
     }
 
     // Getters and setters
-    public String getId() { return id; }
+    public String getId() {
+        if (id == null) {
+            id = UUID.randomUUID().toString();
+        }
+        return id;
+    }
     public String getTitle() { return title; }
     public Point2D getPosition() { return position; }
     public void setPosition(Point2D position) { this.position = position; }
     public List<Pin> getInputPins() { return inputPins; }
     public List<Pin> getOutputPins() { return outputPins; }
     public NodeType getType() { return type; }
+    public Executable getExecutable() { return executable; }
+    public void setExecutable(Executable executable) { this.executable = executable; }
 }
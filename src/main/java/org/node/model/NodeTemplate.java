@@ -0,0 +1,95 @@
+package org.node.model;
+
+import javafx.geometry.Point2D;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Title and pin layout of a method or constructor node, reflected once per executable.
+// Nodes made from it share the template's strings and pin templates and only
+// allocate their own position, pins and values.
+public final class NodeTemplate {
+    private static final Map<Executable, NodeTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private final String title;
+    private final Node.NodeType type;
+    private final Executable executable;
+    private final List<PinTemplate> inputs;
+    private final List<PinTemplate> outputs;
+
+    private NodeTemplate(String title, Executable executable, List<PinTemplate> inputs, List<PinTemplate> outputs) {
+        this.title = title;
+        this.type = Node.NodeType.FUNCTION;
+        this.executable = executable;
+        this.inputs = Collections.unmodifiableList(inputs);
+        this.outputs = Collections.unmodifiableList(outputs);
+    }
+
+    public static NodeTemplate of(Executable executable) {
+        return CACHE.computeIfAbsent(executable, NodeTemplate::build);
+    }
+
+    public Node instantiate(Point2D position) {
+        return new Node(this, position);
+    }
+
+    private static NodeTemplate build(Executable executable) {
+        Class<?> cls = executable.getDeclaringClass();
+        List<PinTemplate> inputs = new ArrayList<>();
+        List<PinTemplate> outputs = new ArrayList<>();
+
+        // Add execution input pin
+        inputs.add(new PinTemplate("exec_in", Pin.PinType.FLOW, "Exec", true));
+
+        // Add 'this' pin for instance methods
+        boolean isMethod = executable instanceof Method;
+        if (isMethod && !Modifier.isStatic(executable.getModifiers())) {
+            inputs.add(new PinTemplate("this", Pin.PinType.OBJECT, cls.getSimpleName(), true, cls));
+        }
+
+        // Add parameter pins
+        Parameter[] parameters = executable.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter param = parameters[i];
+            inputs.add(new PinTemplate(
+                param.getName() != null ? param.getName() : "arg" + i,
+                ClassScanner.convertTypeToPinType(param.getType()),
+                param.getType().getSimpleName(),
+                true,
+                param.getParameterizedType()
+            ));
+        }
+
+        // Add execution output pin
+        outputs.add(new PinTemplate("exec_out", Pin.PinType.FLOW, "Exec", false));
+
+        if (isMethod) {
+            // Add return value pin if not void
+            Class<?> returnType = ((Method) executable).getReturnType();
+            if (returnType != void.class) {
+                outputs.add(new PinTemplate("return", ClassScanner.convertTypeToPinType(returnType),
+                    returnType.getSimpleName(), false, ((Method) executable).getGenericReturnType()));
+            }
+            return new NodeTemplate(executable.getName(), executable, inputs, outputs);
+        }
+
+        // Add instance output pin
+        outputs.add(new PinTemplate("instance", Pin.PinType.OBJECT, cls.getSimpleName(), false, cls));
+        return new NodeTemplate("Create " + cls.getSimpleName(), (Constructor<?>) executable, inputs, outputs);
+    }
+
+    // Getters
+    public String getTitle() { return title; }
+    public Node.NodeType getType() { return type; }
+    public Executable getExecutable() { return executable; }
+    public List<PinTemplate> getInputs() { return inputs; }
+    public List<PinTemplate> getOutputs() { return outputs; }
+}
@@ -0,0 +1,111 @@
+package org.node.model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Runs plan steps as soon as everything they depend on has finished, so branches
+// that share no inputs execute side by side and join at the consuming pin. Steps that
+// read the same mutable object depend on each other in the plan and run one at a time.
+public class ParallelGraphExecutor implements GraphRunner {
+    private final ExecutionPlan plan;
+    private final Executor executor;
+
+    public ParallelGraphExecutor(Graph graph) {
+        this(ExecutionPlan.build(graph));
+    }
+
+    public ParallelGraphExecutor(ExecutionPlan plan) {
+        this(plan, ForkJoinPool.commonPool());
+    }
+
+    public ParallelGraphExecutor(ExecutionPlan plan, Executor executor) {
+        this.plan = plan;
+        this.executor = executor;
+    }
+
+    @Override
+    public Object[] run() {
+        try {
+            return runAsync().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof GraphExecutionException) {
+                throw (GraphExecutionException) e.getCause();
+            }
+            throw new GraphExecutionException("Graph execution failed", e.getCause());
+        }
+    }
+
+    public CompletableFuture<Object[]> runAsync() {
+        Run run = new Run();
+        run.start();
+        return run.result;
+    }
+
+    @Override
+    public ExecutionPlan getPlan() {
+        return plan;
+    }
+
+    private class Run {
+        private final Object[] values = new Object[plan.size()];
+        private final AtomicIntegerArray pending = new AtomicIntegerArray(plan.size());
+        private final AtomicInteger remaining = new AtomicInteger(plan.size());
+        private final CompletableFuture<Object[]> result = new CompletableFuture<>();
+
+        void start() {
+            if (plan.size() == 0) {
+                result.complete(values);
+                return;
+            }
+            for (int step = 0; step < plan.size(); step++) {
+                pending.set(step, plan.getDependencyCount(step));
+            }
+            for (int step = 0; step < plan.size(); step++) {
+                if (plan.getDependencyCount(step) == 0) {
+                    submit(step);
+                }
+            }
+        }
+
+        private void submit(int step) {
+            try {
+                executor.execute(() -> execute(step));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        // Keeps running on this thread while a single successor becomes ready,
+        // only forking when a step releases more than one branch
+        private void execute(int step) {
+            while (step >= 0 && !result.isDone()) {
+                try {
+                    values[step] = plan.invoke(step, values);
+                } catch (Throwable t) {
+                    result.completeExceptionally(
+                        new GraphExecutionException("Node '" + plan.getNode(step).getTitle() + "' failed", t));
+                    return;
+                }
+
+                int next = -1;
+                for (int dependent : plan.getDependents(step)) {
+                    if (pending.decrementAndGet(dependent) == 0) {
+                        if (next < 0) {
+                            next = dependent;
+                        } else {
+                            submit(dependent);
+                        }
+                    }
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    result.complete(values);
+                }
+                step = next;
+            }
+        }
+    }
+}
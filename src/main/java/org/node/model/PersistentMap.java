@@ -0,0 +1,315 @@
+package org.node.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+// Immutable hash array mapped trie. put and remove return a new map that shares every
+// untouched branch with the old one, so keeping each version of a large map costs only
+// the few nodes along the changed paths. Two versions of one map are compared by walking
+// the branches that differ; shared branches are skipped by reference, so a diff costs
+// time in proportion to the changes, not the size.
+public final class PersistentMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Object MISSING = new Object();
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(Bitmap.EMPTY, 0);
+
+    private final Trie root;
+    private final int size;
+
+    private PersistentMap(Trie root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        Object value = root.find(key, hash(key), 0);
+        return value == MISSING ? null : (V) value;
+    }
+
+    public boolean containsKey(K key) {
+        return root.find(key, hash(key), 0) != MISSING;
+    }
+
+    public PersistentMap<K, V> put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Keys and values must not be null");
+        }
+        boolean[] added = new boolean[1];
+        Trie updated = root.put(key, value, hash(key), 0, added);
+        return updated == root ? this : new PersistentMap<>(updated, added[0] ? size + 1 : size);
+    }
+
+    public PersistentMap<K, V> remove(K key) {
+        Trie updated = root.remove(key, hash(key), 0);
+        if (updated == root) return this;
+        return new PersistentMap<>(updated != null ? updated : Bitmap.EMPTY, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        root.forEach((key, value) -> action.accept((K) key, (V) value));
+    }
+
+    // Reports what changed going from this version to the other
+    @SuppressWarnings("unchecked")
+    public void diff(PersistentMap<K, V> other, Changes<K, V> changes) {
+        if (root != other.root) {
+            compare(root, other.root, (Changes<Object, Object>) changes);
+        }
+    }
+
+    public interface Changes<K, V> {
+        void added(K key, V value);
+        void removed(K key, V value);
+        void changed(K key, V before, V after);
+    }
+
+    private static void compare(Trie before, Trie after, Changes<Object, Object> changes) {
+        if (before == after) return;
+        if (!(before instanceof Bitmap) || !(after instanceof Bitmap)) {
+            compareEntries(before::forEach, after::forEach, changes);
+            return;
+        }
+        Bitmap a = (Bitmap) before;
+        Bitmap b = (Bitmap) after;
+        for (int slots = a.bitmap | b.bitmap; slots != 0; slots &= slots - 1) {
+            int bit = slots & -slots;
+            if ((b.bitmap & bit) == 0) {
+                a.forEachIn(a.index(bit), changes::removed);
+            } else if ((a.bitmap & bit) == 0) {
+                b.forEachIn(b.index(bit), changes::added);
+            } else {
+                int i = a.index(bit);
+                int j = b.index(bit);
+                Object keyA = a.array[2 * i];
+                Object valueA = a.array[2 * i + 1];
+                Object keyB = b.array[2 * j];
+                Object valueB = b.array[2 * j + 1];
+                if (keyA == null && keyB == null) {
+                    compare((Trie) valueA, (Trie) valueB, changes);
+                } else if (keyA != null && keyB != null && keyA.equals(keyB)) {
+                    if (!Objects.equals(valueA, valueB)) changes.changed(keyA, valueA, valueB);
+                } else {
+                    // An entry against a branch, or two different entries: both hold a handful of keys
+                    compareEntries(action -> a.forEachIn(i, action), action -> b.forEachIn(j, action), changes);
+                }
+            }
+        }
+    }
+
+    private static void compareEntries(Source before, Source after, Changes<Object, Object> changes) {
+        Map<Object, Object> remaining = new HashMap<>();
+        before.forEach(remaining::put);
+        after.forEach((key, value) -> {
+            if (!remaining.containsKey(key)) {
+                changes.added(key, value);
+                return;
+            }
+            Object previous = remaining.remove(key);
+            if (!Objects.equals(previous, value)) changes.changed(key, previous, value);
+        });
+        remaining.forEach(changes::removed);
+    }
+
+    private interface Source {
+        void forEach(BiConsumer<Object, Object> action);
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private abstract static class Trie {
+        abstract Object find(Object key, int hash, int shift);
+        abstract Trie put(Object key, Object value, int hash, int shift, boolean[] added);
+        // Null once the last entry is gone
+        abstract Trie remove(Object key, int hash, int shift);
+        abstract void forEach(BiConsumer<Object, Object> action);
+    }
+
+    // Up to 32 slots, present ones packed; a slot holds key and value, or null and a branch
+    private static final class Bitmap extends Trie {
+        static final Bitmap EMPTY = new Bitmap(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] array;
+
+        Bitmap(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) return MISSING;
+            int i = index(bit);
+            Object slotKey = array[2 * i];
+            if (slotKey == null) return ((Trie) array[2 * i + 1]).find(key, hash, shift + BITS);
+            return key.equals(slotKey) ? array[2 * i + 1] : MISSING;
+        }
+
+        @Override
+        Trie put(Object key, Object value, int hash, int shift, boolean[] added) {
+            int bit = bit(hash, shift);
+            int i = index(bit);
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] grown = new Object[array.length + 2];
+                System.arraycopy(array, 0, grown, 0, 2 * i);
+                grown[2 * i] = key;
+                grown[2 * i + 1] = value;
+                System.arraycopy(array, 2 * i, grown, 2 * i + 2, array.length - 2 * i);
+                return new Bitmap(bitmap | bit, grown);
+            }
+            Object slotKey = array[2 * i];
+            Object slotValue = array[2 * i + 1];
+            if (slotKey == null) {
+                Trie branch = ((Trie) slotValue).put(key, value, hash, shift + BITS, added);
+                return branch == slotValue ? this : with(i, null, branch);
+            }
+            if (key.equals(slotKey)) {
+                return slotValue == value ? this : with(i, slotKey, value);
+            }
+            added[0] = true;
+            return with(i, null, split(slotKey, slotValue, key, value, hash, shift + BITS));
+        }
+
+        @Override
+        Trie remove(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) return this;
+            int i = index(bit);
+            Object slotKey = array[2 * i];
+            if (slotKey == null) {
+                Trie branch = (Trie) array[2 * i + 1];
+                Trie updated = branch.remove(key, hash, shift + BITS);
+                if (updated == branch) return this;
+                if (updated != null) return with(i, null, updated);
+            } else if (!key.equals(slotKey)) {
+                return this;
+            }
+            if (bitmap == bit) return null;
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, 2 * i);
+            System.arraycopy(array, 2 * i + 2, shrunk, 2 * i, shrunk.length - 2 * i);
+            return new Bitmap(bitmap ^ bit, shrunk);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length / 2; i++) {
+                forEachIn(i, action);
+            }
+        }
+
+        void forEachIn(int i, BiConsumer<Object, Object> action) {
+            if (array[2 * i] == null) {
+                ((Trie) array[2 * i + 1]).forEach(action);
+            } else {
+                action.accept(array[2 * i], array[2 * i + 1]);
+            }
+        }
+
+        private Bitmap with(int i, Object key, Object value) {
+            Object[] copy = array.clone();
+            copy[2 * i] = key;
+            copy[2 * i + 1] = value;
+            return new Bitmap(bitmap, copy);
+        }
+
+        // Two keys that met in one slot move down a level, or into a collision list
+        private static Trie split(Object first, Object firstValue, Object second, Object secondValue, int secondHash, int shift) {
+            int firstHash = hash(first);
+            if (firstHash == secondHash) {
+                return new Collision(firstHash, new Object[] {first, firstValue, second, secondValue});
+            }
+            boolean[] added = new boolean[1];
+            return EMPTY.put(first, firstValue, firstHash, shift, added).put(second, secondValue, secondHash, shift, added);
+        }
+    }
+
+    // Keys whose whole hashes are equal
+    private static final class Collision extends Trie {
+        final int hash;
+        final Object[] array;
+
+        Collision(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            return i < 0 ? MISSING : array[i + 1];
+        }
+
+        @Override
+        Trie put(Object key, Object value, int hash, int shift, boolean[] added) {
+            if (hash != this.hash) {
+                return new Bitmap(bit(this.hash, shift), new Object[] {null, this}).put(key, value, hash, shift, added);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) return this;
+                Object[] copy = array.clone();
+                copy[i + 1] = value;
+                return new Collision(hash, copy);
+            }
+            added[0] = true;
+            Object[] grown = Arrays.copyOf(array, array.length + 2);
+            grown[array.length] = key;
+            grown[array.length + 1] = value;
+            return new Collision(hash, grown);
+        }
+
+        @Override
+        Trie remove(Object key, int hash, int shift) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i < 0) return this;
+            if (array.length == 2) return null;
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 2, shrunk, i, shrunk.length - i);
+            return new Collision(hash, shrunk);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+    }
+
+    // Getters
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+}
@@ -3,14 +3,13 @@ package org.node.model;
 import javafx.geometry.Point2D;
 import javafx.scene.paint.Color;
 
+import java.lang.reflect.Type;
+
 public class Pin {
-    private String id;
-    private PinType type;
-    private String label;
+    private PinTemplate template;
     private Point2D position;
     private Node parentNode;
-    private boolean isInput;
-    private Color color;
+    private Object defaultValue;
 
     public enum PinType {
         FLOW,       // Execution flow (white)
@@ -21,15 +20,19 @@ public class Pin {
         ARRAY       // Array (purple)
     }
 
+    // For views whose state lives elsewhere, see GraphStore
+    protected Pin() {
+    }
+
     public Pin(String id, PinType type, String label, boolean isInput) {
-        this.id = id;
-        this.type = type;
-        this.label = label;
-        this.isInput = isInput;
-        this.color = getPinColor(type);
+        this(new PinTemplate(id, type, label, isInput));
+    }
+
+    public Pin(PinTemplate template) {
+        this.template = template;
     }
 
-    private Color getPinColor(PinType type) {
+    static Color colorOf(PinType type) {
         switch (type) {
             case FLOW: return Color.WHITE;
             case BOOLEAN: return Color.RED;
@@ -42,13 +45,18 @@ public class Pin {
     }
 
     // Getters and setters
-    public String getId() { return id; }
-    public PinType getType() { return type; }
-    public String getLabel() { return label; }
+    public PinTemplate getTemplate() { return template; }
+    public String getId() { return template.getId(); }
+    public PinType getType() { return template.getType(); }
+    public String getLabel() { return template.getLabel(); }
     public Point2D getPosition() { return position; }
     public void setPosition(Point2D position) { this.position = position; }
     public Node getParentNode() { return parentNode; }
     public void setParentNode(Node parentNode) { this.parentNode = parentNode; }
-    public boolean isInput() { return isInput; }
-    public Color getColor() { return color; }
+    public boolean isInput() { return template.isInput(); }
+    public Color getColor() { return template.getColor(); }
+    public Type getGenericType() { return template.getGenericType(); }
+    public Class<?> getJavaType() { return template.getJavaType(); }
+    public Object getDefaultValue() { return defaultValue; }
+    public void setDefaultValue(Object defaultValue) { this.defaultValue = defaultValue; }
 }
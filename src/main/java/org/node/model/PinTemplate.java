@@ -0,0 +1,40 @@
+package org.node.model;
+
+import javafx.scene.paint.Color;
+
+import java.lang.reflect.Type;
+
+// Immutable part of a pin, shared by every node created from the same template
+public final class PinTemplate {
+    private final String id;
+    private final Pin.PinType type;
+    private final String label;
+    private final boolean input;
+    private final Color color;
+    private final Type genericType;
+    private final Class<?> javaType;
+
+    public PinTemplate(String id, Pin.PinType type, String label, boolean input) {
+        this(id, type, label, input, null);
+    }
+
+    // genericType is the declared Java type, e.g. List<String>, or null for flow pins
+    public PinTemplate(String id, Pin.PinType type, String label, boolean input, Type genericType) {
+        this.id = id;
+        this.type = type;
+        this.label = label;
+        this.input = input;
+        this.color = Pin.colorOf(type);
+        this.genericType = genericType;
+        this.javaType = genericType != null ? TypeCompatibility.rawType(genericType) : null;
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public Pin.PinType getType() { return type; }
+    public String getLabel() { return label; }
+    public boolean isInput() { return input; }
+    public Color getColor() { return color; }
+    public Type getGenericType() { return genericType; }
+    public Class<?> getJavaType() { return javaType; }
+}
@@ -1,11 +1,16 @@
 package org.node.model;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
 
+// project.json only holds metadata; the graph itself lives in a binary GraphFile next to it.
+// Older files listed nodes and connections inline, those fields are ignored.
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class Project {
     @JsonProperty("name")
     private String name;
@@ -13,19 +18,18 @@ public class Project {
     @JsonProperty("rootPath")
     private String rootPath;
     
-    @JsonProperty("nodes")
-    private List<String> nodes;
-    
-    @JsonProperty("connections")
-    private List<String> connections;
+    @JsonProperty("graphFile")
+    private String graphFile;
     
     private static final String PROJECT_FILE = "project.json";
+    private static final String GRAPH_FILE = "graph.jeg";
+    private static final String JOURNAL_FILE = "graph.journal";
+    private static final String SHARD_DIRECTORY = "shards";
     private static final ObjectMapper mapper = new ObjectMapper();
     
     public Project() {
         // Default constructor for Jackson
-        this.nodes = new ArrayList<>();
-        this.connections = new ArrayList<>();
+        this.graphFile = GRAPH_FILE;
     }
     
     public Project(String name, String rootPath) {
@@ -64,11 +68,56 @@ public class Project {
         mapper.writerWithDefaultPrettyPrinter().writeValue(projectFile.toFile(), this);
     }
     
+    public void saveGraph(GraphStore graph) throws IOException {
+        GraphFile.write(graph, getGraphPath());
+    }
+    
+    // Maps the graph without decoding it; null for a project that has no graph yet
+    public GraphFile openGraph() throws IOException {
+        Path graphPath = getGraphPath();
+        return Files.exists(graphPath) ? GraphFile.open(graphPath) : null;
+    }
+    
+    public GraphStore loadGraph() throws IOException {
+        GraphFile file = openGraph();
+        return file != null ? file.toStore() : new GraphStore();
+    }
+    
+    // Alternative layout for very large graphs, one file per world region
+    public void saveSharded(GraphStore graph) throws IOException {
+        ShardedGraph.write(graph, Paths.get(rootPath, SHARD_DIRECTORY), ShardedGraph.DEFAULT_REGION_SIZE);
+    }
+    
+    public ShardedGraph openSharded(int nodeBudget) throws IOException {
+        return ShardedGraph.open(Paths.get(rootPath, SHARD_DIRECTORY), nodeBudget);
+    }
+    
+    // Recovers the graph from the snapshot and the edits journaled since
+    public ChangeJournal openJournal() throws IOException {
+        return ChangeJournal.open(getGraphPath(), Paths.get(rootPath, JOURNAL_FILE));
+    }
+    
+    public static void exportGraph(GraphStore graph, Path target) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            GraphJson.write(graph, out);
+        }
+    }
+    
+    public static GraphStore importGraph(Path source) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source))) {
+            return GraphJson.read(in);
+        }
+    }
+    
+    @JsonIgnore
+    public Path getGraphPath() {
+        return Paths.get(rootPath, graphFile);
+    }
+    
     // Getters and setters
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
     public String getRootPath() { return rootPath; }
     public void setRootPath(String rootPath) { this.rootPath = rootPath; }
-    public List<String> getNodes() { return nodes; }
-    public List<String> getConnections() { return connections; }
+    public String getGraphFile() { return graphFile; }
 }
@@ -0,0 +1,187 @@
+package org.node.model;
+
+import javafx.geometry.Rectangle2D;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Region quadtree over item bounds. An item lives in the smallest cell that fully
+// contains it, so large items stay high up and moves only touch the cells involved.
+// The root grows outward when an item lands outside it.
+public class QuadTree<T> {
+    private static final int MAX_ITEMS = 8;
+    private static final double MIN_CELL_SIZE = 16;
+
+    private final Map<T, Entry<T>> entries = new HashMap<>();
+    private Cell<T> root;
+
+    public QuadTree(Rectangle2D bounds) {
+        this.root = new Cell<>(null, bounds.getMinX(), bounds.getMinY(), bounds.getWidth(), bounds.getHeight());
+    }
+
+    public void insert(T item, Rectangle2D bounds) {
+        Entry<T> entry = entries.get(item);
+        if (entry != null) {
+            if (entry.bounds.equals(bounds)) return;
+            entry.cell.remove(entry);
+        } else {
+            entry = new Entry<>(item);
+            entries.put(item, entry);
+        }
+        entry.bounds = bounds;
+        while (!root.contains(bounds)) {
+            grow(bounds);
+        }
+        root.insert(entry);
+    }
+
+    public boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null) return false;
+        entry.cell.remove(entry);
+        return true;
+    }
+
+    public Rectangle2D getBounds(T item) {
+        Entry<T> entry = entries.get(item);
+        return entry != null ? entry.bounds : null;
+    }
+
+    public void query(Rectangle2D area, Consumer<T> action) {
+        root.query(area, action);
+    }
+
+    public List<T> query(Rectangle2D area) {
+        List<T> result = new ArrayList<>();
+        root.query(area, result::add);
+        return result;
+    }
+
+    public void clear() {
+        entries.clear();
+        root = new Cell<>(null, root.x, root.y, root.width, root.height);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Doubles the root toward the item; the old root becomes one quadrant of the new one
+    private void grow(Rectangle2D toward) {
+        Cell<T> old = root;
+        boolean left = toward.getMinX() < old.x;
+        boolean up = toward.getMinY() < old.y;
+        double x = left ? old.x - old.width : old.x;
+        double y = up ? old.y - old.height : old.y;
+        Cell<T> grown = new Cell<>(null, x, y, old.width * 2, old.height * 2);
+        grown.split();
+        int quadrant = (left ? 1 : 0) + (up ? 2 : 0);
+        old.parent = grown;
+        grown.children.set(quadrant, old);
+        root = grown;
+    }
+
+    private static class Entry<T> {
+        final T item;
+        Rectangle2D bounds;
+        Cell<T> cell;
+
+        Entry(T item) {
+            this.item = item;
+        }
+    }
+
+    private static class Cell<T> {
+        final double x;
+        final double y;
+        final double width;
+        final double height;
+        Cell<T> parent;
+        List<Entry<T>> items = new ArrayList<>(0);
+        List<Cell<T>> children;
+
+        Cell(Cell<T> parent, double x, double y, double width, double height) {
+            this.parent = parent;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        boolean contains(Rectangle2D bounds) {
+            return bounds.getMinX() >= x && bounds.getMinY() >= y &&
+                bounds.getMaxX() <= x + width && bounds.getMaxY() <= y + height;
+        }
+
+        boolean intersects(Rectangle2D area) {
+            return area.getMaxX() >= x && area.getMinX() <= x + width &&
+                area.getMaxY() >= y && area.getMinY() <= y + height;
+        }
+
+        void insert(Entry<T> entry) {
+            if (children != null) {
+                for (Cell<T> child : children) {
+                    if (child.contains(entry.bounds)) {
+                        child.insert(entry);
+                        return;
+                    }
+                }
+            }
+            entry.cell = this;
+            items.add(entry);
+            if (children == null && items.size() > MAX_ITEMS && width / 2 >= MIN_CELL_SIZE) {
+                split();
+                List<Entry<T>> current = items;
+                items = new ArrayList<>(0);
+                for (Entry<T> item : current) {
+                    insert(item);
+                }
+            }
+        }
+
+        // Quadrants in row order: top-left, top-right, bottom-left, bottom-right
+        void split() {
+            double halfWidth = width / 2;
+            double halfHeight = height / 2;
+            children = new ArrayList<>(4);
+            children.add(new Cell<>(this, x, y, halfWidth, halfHeight));
+            children.add(new Cell<>(this, x + halfWidth, y, halfWidth, halfHeight));
+            children.add(new Cell<>(this, x, y + halfHeight, halfWidth, halfHeight));
+            children.add(new Cell<>(this, x + halfWidth, y + halfHeight, halfWidth, halfHeight));
+        }
+
+        void remove(Entry<T> entry) {
+            items.remove(entry);
+            entry.cell = null;
+            Cell<T> cell = this;
+            while (cell != null && cell.isEmptyLeaf()) {
+                Cell<T> parent = cell.parent;
+                if (parent != null && parent.children.stream().allMatch(Cell::isEmptyLeaf)) {
+                    parent.children = null;
+                }
+                cell = parent;
+            }
+        }
+
+        boolean isEmptyLeaf() {
+            return children == null && items.isEmpty();
+        }
+
+        void query(Rectangle2D area, Consumer<T> action) {
+            for (Entry<T> entry : items) {
+                if (entry.bounds.intersects(area)) {
+                    action.accept(entry.item);
+                }
+            }
+            if (children != null) {
+                for (Cell<T> child : children) {
+                    if (child.intersects(area)) {
+                        child.query(area, action);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package org.node.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
+
+// Name index for incremental search: a sorted key array for prefix lookups and
+// trigram posting lists for substring and typo-tolerant lookups. Results keep
+// every match so a longer query only has to look up the trigrams it adds.
+public class SearchIndex<T> {
+    private static final double MIN_TRIGRAM_SHARE = 0.5;
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+    private final String[] names;
+    private final String[] keys;
+    private final List<T> values;
+    private final int[] sorted;
+    private final Map<Long, int[]> trigrams;
+
+    private SearchIndex(List<String> names, List<T> values) {
+        int size = names.size();
+        this.names = names.toArray(new String[0]);
+        this.keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = this.names[i].toLowerCase(Locale.ROOT);
+        }
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+        this.sorted = IntStream.range(0, size).boxed()
+            .sorted((a, b) -> keys[a].compareTo(keys[b]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+
+        Map<Long, int[]> postings = new HashMap<>();
+        Map<Long, Integer> lengths = new HashMap<>();
+        for (int id = 0; id < size; id++) {
+            String key = keys[id];
+            for (int i = 0; i + 3 <= key.length(); i++) {
+                long trigram = trigram(key, i);
+                int[] list = postings.get(trigram);
+                int length = lengths.getOrDefault(trigram, 0);
+                if (list == null) {
+                    list = new int[4];
+                } else if (list[length - 1] == id) {
+                    continue; // trigram repeats within this name
+                } else if (length == list.length) {
+                    list = Arrays.copyOf(list, length * 2);
+                }
+                list[length] = id;
+                postings.put(trigram, list);
+                lengths.put(trigram, length + 1);
+            }
+        }
+        postings.replaceAll((trigram, list) -> Arrays.copyOf(list, lengths.get(trigram)));
+        this.trigrams = postings;
+    }
+
+    public static class Builder<T> {
+        private final List<String> names = new ArrayList<>();
+        private final List<T> values = new ArrayList<>();
+
+        public Builder<T> add(String name, T value) {
+            names.add(name);
+            values.add(value);
+            return this;
+        }
+
+        public SearchIndex<T> build() {
+            return new SearchIndex<>(names, values);
+        }
+    }
+
+    public Result<T> search(String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        int[] candidates = q.length() < 3 ? prefixRange(q) : trigramCandidates(q);
+        return score(query, q, candidates);
+    }
+
+    // A name matching the longer query but not the shorter one must hold a trigram the new
+    // characters add: without one it shares less than half the longer query's trigrams.
+    // So the previous hits plus those trigrams' postings, kept to the names a fresh search
+    // would look at, give the same result as searching again.
+    public Result<T> refine(Result<T> previous, String query) {
+        if (!canRefine(previous, query)) {
+            return search(query);
+        }
+        String q = query.toLowerCase(Locale.ROOT);
+        int needed = neededTrigrams(q);
+        boolean[] seen = new boolean[keys.length];
+        int[] candidates = new int[previous.ids.length + 64];
+        int count = 0;
+        for (int id : previous.ids) {
+            seen[id] = true;
+            if (sharedTrigrams(id, q) >= needed) candidates[count++] = id;
+        }
+        int checked = 0;
+        for (int i = previous.query.length() - 2; i + 3 <= q.length(); i++) {
+            int[] list = trigrams.get(trigram(q, i));
+            if (list == null) continue;
+            for (int id : list) {
+                if (++checked % CANCEL_CHECK_INTERVAL == 0) checkCancelled();
+                if (seen[id]) continue;
+                seen[id] = true;
+                if (sharedTrigrams(id, q) < needed) continue;
+                if (count == candidates.length) candidates = Arrays.copyOf(candidates, count * 2);
+                candidates[count++] = id;
+            }
+        }
+        return score(query, q, Arrays.copyOf(candidates, count));
+    }
+
+    public boolean canRefine(Result<T> previous, String query) {
+        return previous != null && previous.index == this && previous.query.length() >= 3 &&
+            query.toLowerCase(Locale.ROOT).startsWith(previous.query.toLowerCase(Locale.ROOT));
+    }
+
+    private int[] prefixRange(String q) {
+        int low = lowerBound(q);
+        int high = low;
+        while (high < sorted.length && keys[sorted[high]].startsWith(q)) {
+            high++;
+        }
+        return Arrays.copyOfRange(sorted, low, high);
+    }
+
+    private int lowerBound(String q) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[sorted[mid]].compareTo(q) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int[] trigramCandidates(String q) {
+        List<int[]> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            int[] list = trigrams.get(trigram(q, i));
+            if (list != null) lists.add(list);
+        }
+        int needed = neededTrigrams(q);
+
+        int[] counts = new int[keys.length];
+        int[] hits = new int[64];
+        int hitCount = 0;
+        int checked = 0;
+        for (int[] list : lists) {
+            for (int id : list) {
+                if (++checked % CANCEL_CHECK_INTERVAL == 0) checkCancelled();
+                if (++counts[id] == needed) {
+                    if (hitCount == hits.length) hits = Arrays.copyOf(hits, hitCount * 2);
+                    hits[hitCount++] = id;
+                }
+            }
+        }
+        return Arrays.copyOf(hits, hitCount);
+    }
+
+    private static int neededTrigrams(String q) {
+        return Math.max(1, (int) Math.ceil((q.length() - 2) * MIN_TRIGRAM_SHARE));
+    }
+
+    // Query trigrams found in the name, counted per position like the postings lookup
+    private int sharedTrigrams(int id, String q) {
+        String key = keys[id];
+        int shared = 0;
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            if (key.indexOf(q.substring(i, i + 3)) >= 0) shared++;
+        }
+        return shared;
+    }
+
+    private Result<T> score(String query, String q, int[] candidates) {
+        int[] ids = new int[candidates.length];
+        int[] scores = new int[keys.length];
+        int count = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0) checkCancelled();
+            int id = candidates[i];
+            int score = score(id, q);
+            if (score > 0) {
+                scores[id] = score;
+                ids[count++] = id;
+            }
+        }
+        Integer[] boxed = new Integer[count];
+        for (int i = 0; i < count; i++) boxed[i] = ids[i];
+        Arrays.sort(boxed, (a, b) -> scores[a] != scores[b] ? scores[b] - scores[a] : keys[a].compareTo(keys[b]));
+        int[] ranked = new int[count];
+        for (int i = 0; i < count; i++) ranked[i] = boxed[i];
+        return new Result<>(this, query, ranked);
+    }
+
+    // Exact, prefix, substring (at a word boundary scores higher), subsequence, then trigram overlap
+    private int score(int id, String q) {
+        String key = keys[id];
+        int lengthPenalty = Math.min(100, key.length() - q.length());
+        if (key.equals(q)) return 1000;
+        if (key.startsWith(q)) return 800 - lengthPenalty;
+        int at = key.indexOf(q);
+        if (at >= 0) {
+            int boundary = Character.isUpperCase(names[id].charAt(at)) ? 50 : 0;
+            return 600 + boundary - Math.min(100, at) - lengthPenalty / 2;
+        }
+        int gaps = subsequenceGaps(key, q);
+        if (gaps >= 0) return Math.max(1, 400 - gaps * 10 - lengthPenalty / 2);
+        if (q.length() >= 3) {
+            double share = (double) sharedTrigrams(id, q) / (q.length() - 2);
+            if (share >= MIN_TRIGRAM_SHARE) return (int) (200 * share);
+        }
+        return 0;
+    }
+
+    private static int subsequenceGaps(String key, String q) {
+        int gaps = 0;
+        int k = 0;
+        for (int i = 0; i < q.length(); i++) {
+            int found = key.indexOf(q.charAt(i), k);
+            if (found < 0) return -1;
+            if (found > k && i > 0) gaps++;
+            k = found + 1;
+        }
+        return gaps;
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Search superseded");
+        }
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public static class Result<T> {
+        private final SearchIndex<T> index;
+        private final String query;
+        private final int[] ids;
+
+        Result(SearchIndex<T> index, String query, int[] ids) {
+            this.index = index;
+            this.query = query;
+            this.ids = ids;
+        }
+
+        public List<T> top(int limit) {
+            List<T> top = new ArrayList<>();
+            for (int i = 0; i < Math.min(limit, ids.length); i++) {
+                top.add(index.values.get(ids[i]));
+            }
+            return top;
+        }
+
+        public int size() { return ids.length; }
+        public String getQuery() { return query; }
+    }
+}
@@ -0,0 +1,347 @@
+package org.node.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import javafx.geometry.Rectangle2D;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// A graph split into square world regions, one GraphFile per non-empty region, plus a
+// small manifest listing each shard's region, size and the shards it shares wires with.
+// Opening reads only the manifest. Shards are loaded on demand for an area or for what
+// execution reaches, and the least recently used ones are dropped once the loaded node
+// count exceeds the budget; edited shards are written back first. Wires between shards
+// are kept in a links file beside each of the two shards.
+public class ShardedGraph {
+    public static final double DEFAULT_REGION_SIZE = 4096;
+
+    private static final String MANIFEST_FILE = "manifest.json";
+    private static final int LINK_RECORD = 16;
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Path directory;
+    private final Manifest manifest;
+    private final QuadTree<Shard> index;
+    private final int nodeBudget;
+    private final Map<Shard, Loaded> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    private int loadedNodes;
+
+    private ShardedGraph(Path directory, Manifest manifest, int nodeBudget) {
+        this.directory = directory;
+        this.manifest = manifest;
+        this.nodeBudget = nodeBudget;
+        this.index = new QuadTree<>(new Rectangle2D(0, 0, manifest.regionSize, manifest.regionSize));
+        for (int i = 0; i < manifest.shards.size(); i++) {
+            Shard shard = manifest.shards.get(i);
+            shard.id = i;
+            index.insert(shard, shard.getBounds(manifest.regionSize));
+        }
+    }
+
+    public static ShardedGraph open(Path directory, int nodeBudget) throws IOException {
+        Manifest manifest = mapper.readValue(directory.resolve(MANIFEST_FILE).toFile(), Manifest.class);
+        return new ShardedGraph(directory, manifest, nodeBudget);
+    }
+
+    // Replaces whatever shards the directory held. A node belongs to the region its position falls in.
+    public static void write(GraphStore graph, Path directory, double regionSize) throws IOException {
+        if (regionSize <= 0) {
+            throw new IllegalArgumentException("Region size must be positive: " + regionSize);
+        }
+        Map<Long, Integer> shardIds = new HashMap<>();
+        List<Shard> shards = new ArrayList<>();
+        List<GraphStore> stores = new ArrayList<>();
+        List<List<int[]>> links = new ArrayList<>();
+        int[] shardOf = new int[graph.getNodeCapacity()];
+        int[] pinOffset = new int[graph.getNodeCapacity()];
+
+        for (int node = 0; node < graph.getNodeCapacity(); node++) {
+            if (graph.isRemoved(node)) continue;
+            int regionX = (int) Math.floor(graph.getX(node) / regionSize);
+            int regionY = (int) Math.floor(graph.getY(node) / regionSize);
+            int shardId = shardIds.computeIfAbsent(((long) regionX << 32) | (regionY & 0xffffffffL), key -> {
+                Shard shard = new Shard();
+                shard.regionX = regionX;
+                shard.regionY = regionY;
+                shard.file = "shard_" + regionX + "_" + regionY + ".jeg";
+                shards.add(shard);
+                stores.add(new GraphStore());
+                links.add(new ArrayList<>());
+                return shards.size() - 1;
+            });
+            GraphStore store = stores.get(shardId);
+            int local = store.addNode(graph.getTitle(node), graph.getType(node), graph.getX(node), graph.getY(node),
+                graph.getExecutable(node));
+            int first = graph.getFirstPin(node);
+            for (int pin = first; pin < first + graph.getPinCount(node); pin++) {
+                int localPin = store.addPin(local, graph.getPinType(pin), graph.getPinName(pin), graph.getPinLabel(pin),
+                    graph.isInput(pin));
+                store.setDefaultValue(localPin, graph.getDefaultValue(pin));
+            }
+            shardOf[node] = shardId;
+            pinOffset[node] = store.getFirstPin(local) - first;
+        }
+
+        for (int edge = 0; edge < graph.getEdgeCapacity(); edge++) {
+            int source = graph.getEdgeSource(edge);
+            if (source < 0) continue;
+            int target = graph.getEdgeTarget(edge);
+            int sourceNode = graph.getPinNode(source);
+            int targetNode = graph.getPinNode(target);
+            int sourceShard = shardOf[sourceNode];
+            int targetShard = shardOf[targetNode];
+            int localSource = source + pinOffset[sourceNode];
+            int localTarget = target + pinOffset[targetNode];
+            if (sourceShard == targetShard) {
+                stores.get(sourceShard).connect(localSource, localTarget);
+            } else {
+                int[] link = {sourceShard, localSource, targetShard, localTarget};
+                links.get(sourceShard).add(link);
+                links.get(targetShard).add(link);
+            }
+        }
+
+        Files.createDirectories(directory);
+        Set<String> written = new HashSet<>();
+        for (int i = 0; i < shards.size(); i++) {
+            Shard shard = shards.get(i);
+            shard.nodeCount = stores.get(i).getNodeCount();
+            Set<Integer> neighbors = new HashSet<>();
+            for (int[] link : links.get(i)) {
+                neighbors.add(link[0] == i ? link[2] : link[0]);
+            }
+            shard.neighbors = neighbors.stream().mapToInt(Integer::intValue).sorted().toArray();
+            GraphFile.write(stores.get(i), directory.resolve(shard.file));
+            writeLinks(directory.resolve(shard.getLinksFile()), links.get(i));
+            written.add(shard.file);
+            written.add(shard.getLinksFile());
+        }
+
+        Manifest manifest = new Manifest();
+        manifest.regionSize = regionSize;
+        manifest.shards = shards;
+        Path temp = Files.createTempFile(directory, MANIFEST_FILE, ".tmp");
+        mapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), manifest);
+        Files.move(temp, directory.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+
+        // Shards of regions that are empty now
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                String name = file.getFileName().toString();
+                if (name.startsWith("shard_") && !written.contains(name)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static void writeLinks(Path file, List<int[]> links) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + links.size() * LINK_RECORD);
+        buffer.putInt(links.size());
+        for (int[] link : links) {
+            buffer.putInt(link[0]).putInt(link[1]).putInt(link[2]).putInt(link[3]);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static int[] readLinks(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int[] links = new int[buffer.getInt() * 4];
+        buffer.asIntBuffer().get(links);
+        return links;
+    }
+
+    // Manifest only, nothing is loaded
+    public List<Shard> query(Rectangle2D area) {
+        return index.query(area);
+    }
+
+    // Loads every shard overlapping the area; none of them is evicted by this call
+    public List<GraphStore> loadArea(Rectangle2D area) throws IOException {
+        List<Shard> shards = query(area);
+        List<GraphStore> stores = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            stores.add(load(shard, shards));
+        }
+        return stores;
+    }
+
+    // The shard plus every shard wired to it, directly or through others, for execution
+    public Set<Shard> loadConnected(Shard start) throws IOException {
+        Set<Shard> reached = new HashSet<>();
+        Deque<Shard> queue = new ArrayDeque<>();
+        reached.add(start);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            for (int neighbor : queue.poll().neighbors) {
+                Shard shard = manifest.shards.get(neighbor);
+                if (reached.add(shard)) {
+                    queue.add(shard);
+                }
+            }
+        }
+        for (Shard shard : reached) {
+            load(shard, reached);
+        }
+        return reached;
+    }
+
+    public GraphStore load(Shard shard) throws IOException {
+        return load(shard, List.of(shard));
+    }
+
+    private GraphStore load(Shard shard, Collection<Shard> keep) throws IOException {
+        Loaded entry = loaded.get(shard);
+        if (entry == null) {
+            GraphStore store = GraphFile.open(directory.resolve(shard.file)).toStore();
+            entry = new Loaded(store, readLinks(directory.resolve(shard.getLinksFile())));
+            loaded.put(shard, entry);
+            loadedNodes += store.getNodeCapacity();
+            evict(keep);
+        }
+        return entry.store;
+    }
+
+    // Least recently used first, skipping the shards the current request needs
+    private void evict(Collection<Shard> keep) throws IOException {
+        Iterator<Map.Entry<Shard, Loaded>> iterator = loaded.entrySet().iterator();
+        while (loadedNodes > nodeBudget && iterator.hasNext()) {
+            Map.Entry<Shard, Loaded> entry = iterator.next();
+            if (keep.contains(entry.getKey())) continue;
+            if (entry.getValue().dirty) {
+                save(entry.getKey(), entry.getValue());
+            }
+            loadedNodes -= entry.getValue().store.getNodeCapacity();
+            iterator.remove();
+        }
+    }
+
+    // Edits to a loaded shard's store are kept until it is evicted or save() runs.
+    // Nodes keep their ids, so links stay valid; moving a node out of its region
+    // only takes effect with the next write().
+    public void markDirty(Shard shard) {
+        Loaded entry = loaded.get(shard);
+        if (entry == null) {
+            throw new IllegalStateException("Shard " + shard.file + " is not loaded");
+        }
+        entry.dirty = true;
+    }
+
+    public void save() throws IOException {
+        for (Map.Entry<Shard, Loaded> entry : loaded.entrySet()) {
+            if (entry.getValue().dirty) {
+                save(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void save(Shard shard, Loaded entry) throws IOException {
+        GraphFile.write(entry.store, directory.resolve(shard.file));
+        entry.dirty = false;
+    }
+
+    // Cross-shard wires touching a loaded shard as (source shard, source pin, target shard,
+    // target pin) quadruples, pins being ids within their own shard
+    public int[] getLinks(Shard shard) {
+        Loaded entry = loaded.get(shard);
+        if (entry == null) {
+            throw new IllegalStateException("Shard " + shard.file + " is not loaded");
+        }
+        return entry.links.clone();
+    }
+
+    public boolean isLoaded(Shard shard) {
+        return loaded.containsKey(shard);
+    }
+
+    // Getters
+    public List<Shard> getShards() { return Collections.unmodifiableList(manifest.shards); }
+    public double getRegionSize() { return manifest.regionSize; }
+    public int getLoadedShardCount() { return loaded.size(); }
+    public int getLoadedNodeCount() { return loadedNodes; }
+    public int getNodeBudget() { return nodeBudget; }
+
+    private static class Loaded {
+        final GraphStore store;
+        final int[] links;
+        boolean dirty;
+
+        Loaded(GraphStore store, int[] links) {
+            this.store = store;
+            this.links = links;
+        }
+    }
+
+    static class Manifest {
+        @JsonProperty("regionSize")
+        double regionSize;
+
+        @JsonProperty("shards")
+        List<Shard> shards = new ArrayList<>();
+    }
+
+    public static class Shard {
+        @JsonProperty("regionX")
+        private int regionX;
+
+        @JsonProperty("regionY")
+        private int regionY;
+
+        @JsonProperty("file")
+        private String file;
+
+        @JsonProperty("nodeCount")
+        private int nodeCount;
+
+        @JsonProperty("neighbors")
+        private int[] neighbors = new int[0];
+
+        @JsonIgnore
+        private int id;
+
+        Rectangle2D getBounds(double regionSize) {
+            return new Rectangle2D(regionX * regionSize, regionY * regionSize, regionSize, regionSize);
+        }
+
+        @JsonIgnore
+        String getLinksFile() {
+            return file.substring(0, file.length() - ".jeg".length()) + ".links";
+        }
+
+        // Getters
+        public int getId() { return id; }
+        public int getRegionX() { return regionX; }
+        public int getRegionY() { return regionY; }
+        public String getFile() { return file; }
+        public int getNodeCount() { return nodeCount; }
+        public int[] getNeighbors() { return neighbors.clone(); }
+    }
+}
@@ -0,0 +1,161 @@
+package org.node.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Pearce-Kelly dynamic topological order over a graph's wires, data and exec alike. Every
+// node has a rank and each wire runs from a lower rank to a higher one, so ranks are the
+// order execution runs in. A new wire that already points forward costs a map lookup;
+// otherwise only nodes ranked between its two ends are searched, and those affected swap
+// ranks among themselves. Removing wires or nodes never breaks the order, so only connect
+// does any work. Ranks live in a persistent map that snapshots share as they are.
+class TopologicalOrder {
+    private final Graph graph;
+    private PersistentMap<Node, Integer> ranks = PersistentMap.empty();
+    private final TreeMap<Integer, Node> nodes = new TreeMap<>();
+    private int nextRank;
+
+    TopologicalOrder(Graph graph) {
+        this.graph = graph;
+    }
+
+    void add(Node node) {
+        if (ranks.containsKey(node)) return;
+        if (nextRank == Integer.MAX_VALUE) {
+            renumber();
+        }
+        ranks = ranks.put(node, nextRank);
+        nodes.put(nextRank, node);
+        nextRank++;
+    }
+
+    void remove(Node node) {
+        Integer rank = ranks.get(node);
+        if (rank != null) {
+            ranks = ranks.remove(node);
+            nodes.remove(rank);
+        }
+    }
+
+    // Read-only version of the check addEdge makes
+    boolean createsCycle(Node source, Node target) {
+        if (source.equals(target)) return true;
+        int upper = rankOf(source);
+        if (rankOf(target) > upper) return false;
+        return !searchForward(target, source, upper, new ArrayList<>());
+    }
+
+    // Re-ranks for a new wire; returns false without changing anything if it closes a cycle
+    boolean addEdge(Node source, Node target) {
+        if (source.equals(target)) return false;
+        int lower = rankOf(target);
+        int upper = rankOf(source);
+        if (lower > upper) return true;
+
+        List<Node> forward = new ArrayList<>();
+        if (!searchForward(target, source, upper, forward)) {
+            return false;
+        }
+        List<Node> backward = new ArrayList<>();
+        searchBackward(source, lower, backward);
+
+        // The affected nodes keep their set of ranks; everything reaching the source
+        // now comes before everything the target reaches
+        Comparator<Node> byRank = Comparator.comparingInt(ranks::get);
+        forward.sort(byRank);
+        backward.sort(byRank);
+        int[] pool = new int[forward.size() + backward.size()];
+        int i = 0;
+        for (Node node : backward) pool[i++] = ranks.get(node);
+        for (Node node : forward) pool[i++] = ranks.get(node);
+        Arrays.sort(pool);
+        for (int rank : pool) {
+            nodes.remove(rank);
+        }
+        i = 0;
+        for (Node node : backward) assign(node, pool[i++]);
+        for (Node node : forward) assign(node, pool[i++]);
+        return true;
+    }
+
+    // Nodes reachable from start without passing the upper rank; false if goal is among them
+    private boolean searchForward(Node start, Node goal, int upper, List<Node> found) {
+        Set<Node> visited = new HashSet<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        visited.add(start);
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            found.add(node);
+            for (Connection wire : graph.getConnections(node)) {
+                if (!wire.getSourcePin().getParentNode().equals(node)) continue;
+                Node next = wire.getTargetPin().getParentNode();
+                if (next.equals(goal)) return false;
+                if (rankOf(next) < upper && visited.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        return true;
+    }
+
+    // Nodes reaching start without dropping below the lower rank
+    private void searchBackward(Node start, int lower, List<Node> found) {
+        Set<Node> visited = new HashSet<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        visited.add(start);
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            found.add(node);
+            for (Connection wire : graph.getConnections(node)) {
+                if (!wire.getTargetPin().getParentNode().equals(node)) continue;
+                Node previous = wire.getSourcePin().getParentNode();
+                if (rankOf(previous) > lower && visited.add(previous)) {
+                    stack.push(previous);
+                }
+            }
+        }
+    }
+
+    private void assign(Node node, int rank) {
+        ranks = ranks.put(node, rank);
+        nodes.put(rank, node);
+    }
+
+    private void renumber() {
+        List<Node> order = new ArrayList<>(nodes.values());
+        ranks = PersistentMap.empty();
+        nodes.clear();
+        nextRank = 0;
+        for (Node node : order) {
+            assign(node, nextRank++);
+        }
+    }
+
+    private int rankOf(Node node) {
+        Integer rank = ranks.get(node);
+        if (rank == null) {
+            throw new IllegalArgumentException("Node '" + node.getTitle() + "' is not in the graph");
+        }
+        return rank;
+    }
+
+    // Producers before consumers, live and read-only
+    Collection<Node> getNodes() {
+        return Collections.unmodifiableCollection(nodes.values());
+    }
+
+    PersistentMap<Node, Integer> getRanks() {
+        return ranks;
+    }
+}
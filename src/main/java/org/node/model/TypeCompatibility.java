@@ -0,0 +1,190 @@
+package org.node.model;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Decides whether a value of one Java type can be passed where another is expected, with
+// the conversions method invocation allows: reference widening, boxing, and unboxing
+// followed by primitive widening. Classes get a dense index when first seen and answers
+// are kept in a matrix over those indexes, so checking every visible pin while a wire is
+// dragged costs two ClassValue lookups and an array read per pin. Type arguments are
+// compared where both sides know them; type variables accept anything within their bound.
+public final class TypeCompatibility {
+    private static final byte UNKNOWN = 0;
+    private static final byte COMPATIBLE = 1;
+    private static final byte INCOMPATIBLE = 2;
+
+    private static final Map<Class<?>, Class<?>> WRAPPERS = Map.of(
+        boolean.class, Boolean.class, byte.class, Byte.class, short.class, Short.class,
+        char.class, Character.class, int.class, Integer.class, long.class, Long.class,
+        float.class, Float.class, double.class, Double.class);
+    private static final Map<Class<?>, Class<?>> PRIMITIVES = Map.of(
+        Boolean.class, boolean.class, Byte.class, byte.class, Short.class, short.class,
+        Character.class, char.class, Integer.class, int.class, Long.class, long.class,
+        Float.class, float.class, Double.class, double.class);
+    private static final Map<Class<?>, Set<Class<?>>> WIDENING = Map.of(
+        byte.class, Set.of(short.class, int.class, long.class, float.class, double.class),
+        short.class, Set.of(int.class, long.class, float.class, double.class),
+        char.class, Set.of(int.class, long.class, float.class, double.class),
+        int.class, Set.of(long.class, float.class, double.class),
+        long.class, Set.of(float.class, double.class),
+        float.class, Set.of(double.class));
+
+    private static final AtomicInteger nextIndex = new AtomicInteger();
+    private static final ClassValue<Integer> INDEX = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return nextIndex.getAndIncrement();
+        }
+    };
+    private static volatile byte[][] matrix = new byte[64][];
+
+    private TypeCompatibility() {
+    }
+
+    // Flow pins only pair with flow pins; pins without a Java type fall back to their pin type
+    public static boolean canConnect(Pin source, Pin target) {
+        if (source.getType() == Pin.PinType.FLOW || target.getType() == Pin.PinType.FLOW) {
+            return source.getType() == target.getType();
+        }
+        Type from = source.getGenericType();
+        Type to = target.getGenericType();
+        if (from == null || to == null) {
+            return source.getType() == target.getType();
+        }
+        return isAssignable(from, to);
+    }
+
+    public static boolean isAssignable(Class<?> from, Class<?> to) {
+        int source = INDEX.get(from);
+        int target = INDEX.get(to);
+        byte[][] rows = matrix;
+        byte[] row = source < rows.length ? rows[source] : null;
+        if (row != null && target < row.length && row[target] != UNKNOWN) {
+            return row[target] == COMPATIBLE;
+        }
+        boolean result = compute(from, to);
+        store(source, target, result);
+        return result;
+    }
+
+    public static boolean isAssignable(Type from, Type to) {
+        if (from instanceof Class && to instanceof Class) {
+            return isAssignable((Class<?>) from, (Class<?>) to);
+        }
+        if (from instanceof TypeVariable || from instanceof WildcardType) {
+            // Unknown until run time: anything its bound could be cast to or from
+            Class<?> bound = rawType(from);
+            Class<?> target = rawType(to);
+            return isAssignable(bound, target) || isAssignable(target, bound);
+        }
+        if (to instanceof TypeVariable || to instanceof WildcardType) {
+            return isAssignable(rawType(from), rawType(to));
+        }
+        if (!isAssignable(rawType(from), rawType(to))) {
+            return false;
+        }
+        // Arguments are only comparable on the same generic class; subtypes would need
+        // their supertype's arguments resolved, so those pass on the raw check
+        if (from instanceof ParameterizedType && to instanceof ParameterizedType &&
+            rawType(from) == rawType(to)) {
+            Type[] sourceArguments = ((ParameterizedType) from).getActualTypeArguments();
+            Type[] targetArguments = ((ParameterizedType) to).getActualTypeArguments();
+            for (int i = 0; i < sourceArguments.length; i++) {
+                if (!argumentMatches(sourceArguments[i], targetArguments[i])) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean argumentMatches(Type source, Type target) {
+        if (source instanceof TypeVariable || target instanceof TypeVariable) {
+            return true;
+        }
+        if (target instanceof WildcardType) {
+            WildcardType wildcard = (WildcardType) target;
+            for (Type upper : wildcard.getUpperBounds()) {
+                if (!isAssignable(source, upper)) return false;
+            }
+            for (Type lower : wildcard.getLowerBounds()) {
+                if (!isAssignable(lower, source)) return false;
+            }
+            return true;
+        }
+        if (source instanceof WildcardType) {
+            return false;
+        }
+        // Invariant: List<Integer> is not a List<Number>
+        if (rawType(source) != rawType(target)) {
+            return false;
+        }
+        if (source instanceof ParameterizedType && target instanceof ParameterizedType) {
+            Type[] sourceArguments = ((ParameterizedType) source).getActualTypeArguments();
+            Type[] targetArguments = ((ParameterizedType) target).getActualTypeArguments();
+            for (int i = 0; i < sourceArguments.length; i++) {
+                if (!argumentMatches(sourceArguments[i], targetArguments[i])) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean compute(Class<?> from, Class<?> to) {
+        if (to.isAssignableFrom(from)) {
+            return true;
+        }
+        if (from.isPrimitive() && to.isPrimitive()) {
+            return WIDENING.getOrDefault(from, Set.of()).contains(to);
+        }
+        if (from.isPrimitive()) {
+            return from != void.class && to.isAssignableFrom(WRAPPERS.get(from));
+        }
+        if (to.isPrimitive()) {
+            Class<?> unboxed = PRIMITIVES.get(from);
+            return unboxed != null && (unboxed == to || WIDENING.getOrDefault(unboxed, Set.of()).contains(to));
+        }
+        return false;
+    }
+
+    private static synchronized void store(int source, int target, boolean result) {
+        byte[][] rows = matrix;
+        if (source >= rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(source + 1, rows.length * 2));
+        }
+        byte[] row = rows[source];
+        if (row == null || target >= row.length) {
+            int length = Math.max(target + 1, row == null ? 64 : row.length * 2);
+            row = row == null ? new byte[length] : Arrays.copyOf(row, length);
+            rows[source] = row;
+        }
+        row[target] = result ? COMPATIBLE : INCOMPATIBLE;
+        matrix = rows;
+    }
+
+    // Erasure of a type; variables and wildcards erase to their first upper bound
+    public static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        if (type instanceof TypeVariable) {
+            return rawType(((TypeVariable<?>) type).getBounds()[0]);
+        }
+        if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return Object.class;
+    }
+}
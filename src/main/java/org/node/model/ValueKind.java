@@ -0,0 +1,53 @@
+package org.node.model;
+
+// Pin default values that project files can hold. Everything but strings packs into a long.
+enum ValueKind {
+    STRING, BOOLEAN, BYTE, SHORT, CHAR, INT, LONG, FLOAT, DOUBLE;
+
+    private static final ValueKind[] VALUES = values();
+
+    static ValueKind of(Object value) {
+        if (value instanceof String) return STRING;
+        if (value instanceof Boolean) return BOOLEAN;
+        if (value instanceof Byte) return BYTE;
+        if (value instanceof Short) return SHORT;
+        if (value instanceof Character) return CHAR;
+        if (value instanceof Integer) return INT;
+        if (value instanceof Long) return LONG;
+        if (value instanceof Float) return FLOAT;
+        if (value instanceof Double) return DOUBLE;
+        throw new IllegalArgumentException("Cannot store a default value of type " + value.getClass().getName());
+    }
+
+    static ValueKind get(int ordinal) {
+        if (ordinal < 0 || ordinal >= VALUES.length) {
+            throw new IllegalArgumentException("Unknown value kind " + ordinal);
+        }
+        return VALUES[ordinal];
+    }
+
+    long toBits(Object value) {
+        switch (this) {
+            case BOOLEAN: return (Boolean) value ? 1 : 0;
+            case CHAR: return (Character) value;
+            case FLOAT: return Float.floatToIntBits((Float) value);
+            case DOUBLE: return Double.doubleToLongBits((Double) value);
+            case STRING: throw new IllegalStateException("Strings are stored by reference");
+            default: return ((Number) value).longValue();
+        }
+    }
+
+    Object fromBits(long bits) {
+        switch (this) {
+            case BOOLEAN: return bits != 0;
+            case BYTE: return (byte) bits;
+            case SHORT: return (short) bits;
+            case CHAR: return (char) bits;
+            case INT: return (int) bits;
+            case LONG: return bits;
+            case FLOAT: return Float.intBitsToFloat((int) bits);
+            case DOUBLE: return Double.longBitsToDouble(bits);
+            default: throw new IllegalStateException("Strings are stored by reference");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.node.view;
+
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.transform.Affine;
+
+// Maps world coordinates (where nodes live) to screen coordinates of the canvas.
+// Panning and zooming only rewrite the single transform on the world layer.
+public class Camera {
+    private static final double MIN_SCALE = 0.1;
+    private static final double MAX_SCALE = 4.0;
+
+    private final Affine transform = new Affine();
+    private double translateX;
+    private double translateY;
+    private double scale = 1;
+    private Runnable onChanged;
+
+    public void setOnChanged(Runnable callback) {
+        this.onChanged = callback;
+    }
+
+    public void pan(double screenDeltaX, double screenDeltaY) {
+        translateX += screenDeltaX;
+        translateY += screenDeltaY;
+        update();
+    }
+
+    // Keeps the world point under the cursor fixed while scaling
+    public void zoomAt(double factor, double screenX, double screenY) {
+        double newScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * factor));
+        Point2D anchor = screenToWorld(screenX, screenY);
+        scale = newScale;
+        translateX = screenX - anchor.getX() * scale;
+        translateY = screenY - anchor.getY() * scale;
+        update();
+    }
+
+    public void centerOn(Point2D world, double screenWidth, double screenHeight) {
+        translateX = screenWidth / 2 - world.getX() * scale;
+        translateY = screenHeight / 2 - world.getY() * scale;
+        update();
+    }
+
+    public Point2D screenToWorld(double screenX, double screenY) {
+        return new Point2D((screenX - translateX) / scale, (screenY - translateY) / scale);
+    }
+
+    public Point2D worldToScreen(double worldX, double worldY) {
+        return new Point2D(worldX * scale + translateX, worldY * scale + translateY);
+    }
+
+    public Rectangle2D getVisibleWorldArea(double screenWidth, double screenHeight) {
+        Point2D topLeft = screenToWorld(0, 0);
+        return new Rectangle2D(topLeft.getX(), topLeft.getY(),
+            Math.max(0, screenWidth) / scale, Math.max(0, screenHeight) / scale);
+    }
+
+    private void update() {
+        transform.setToTransform(scale, 0, translateX, 0, scale, translateY);
+        if (onChanged != null) {
+            onChanged.run();
+        }
+    }
+
+    // Getters
+    public Affine getTransform() { return transform; }
+    public double getScale() { return scale; }
+    public double getTranslateX() { return translateX; }
+    public double getTranslateY() { return translateY; }
+}
@@ -0,0 +1,601 @@
+package org.node.view;
+
+import javafx.animation.AnimationTimer;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+import org.node.model.Connection;
+import org.node.model.Graph;
+import org.node.model.GraphHistory;
+import org.node.model.GraphState;
+import org.node.model.Node;
+import org.node.model.Pin;
+import org.node.model.QuadTree;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+// Graph editing surface. Node positions live in a quadtree; only the nodes that
+// intersect the viewport (plus a margin) get a NodeView, taken from a pool.
+// Views sit in world coordinates on one layer that the camera transforms;
+// wires are drawn underneath on a single canvas.
+public class GraphCanvas extends Pane {
+    private static final double VIEWPORT_MARGIN = 200;
+    private static final double ZOOM_STEP = 1.1;
+    private static final double WIRE_PICK_TOLERANCE = 6;
+    private static final double INITIAL_INDEX_SIZE = 4096;
+    private static final int MAX_IDLE_VIEWS = 256;
+
+    private final Graph graph;
+    private final GraphHistory history;
+    private final QuadTree<Node> index = new QuadTree<>(new Rectangle2D(0, 0, INITIAL_INDEX_SIZE, INITIAL_INDEX_SIZE));
+    private final Map<Node, NodeView> visibleViews = new HashMap<>();
+    private final NodeViewPool viewPool = new NodeViewPool(MAX_IDLE_VIEWS, this::setupNodeView);
+    // Observable so the explorer can follow additions and removals as deltas
+    private final ObservableList<Node> nodes = FXCollections.observableArrayList();
+    private final SelectionModel selection = new SelectionModel();
+
+    private final Camera camera = new Camera();
+    private final Pane worldLayer = new Pane();
+    private final WireLayer wireLayer = new WireLayer(camera);
+    private Pin wireDragSource;
+    // Rubber band in screen coordinates, from where the press landed
+    private final Rectangle rubberBand = new Rectangle();
+    private Point2D rubberBandStart;
+    private BitSet rubberBandBase;
+
+    // Moves and layout changes only mark nodes; wires are recomputed once per pulse
+    private final Set<Node> movedNodes = new LinkedHashSet<>();
+    private boolean redrawRequested;
+    private boolean pulseScheduled;
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flushWireUpdates();
+        }
+    };
+    // World area the visible views were last bound for, margin included
+    private Rectangle2D boundArea = Rectangle2D.EMPTY;
+    private Point2D lastPanPosition;
+
+    public GraphCanvas(Graph graph) {
+        this.graph = graph;
+        this.history = new GraphHistory(graph);
+        setStyle("-fx-background-color: #1E1E1E;");
+
+        // Unmanaged so the canvas never lays out or measures the world layer's children
+        worldLayer.setManaged(false);
+        worldLayer.getTransforms().add(camera.getTransform());
+        wireLayer.setManaged(false);
+        wireLayer.widthProperty().bind(widthProperty());
+        wireLayer.heightProperty().bind(heightProperty());
+        getChildren().addAll(wireLayer, worldLayer);
+
+        Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(widthProperty());
+        clip.heightProperty().bind(heightProperty());
+        setClip(clip);
+
+        camera.setOnChanged(() -> {
+            updateViewport();
+            requestRedraw();
+        });
+        widthProperty().addListener((observable, oldValue, newValue) -> updateViewport());
+        heightProperty().addListener((observable, oldValue, newValue) -> updateViewport());
+        setupNavigation();
+
+        rubberBand.getStyleClass().add("rubber-band");
+        rubberBand.setManaged(false);
+        rubberBand.setVisible(false);
+        rubberBand.setMouseTransparent(true);
+        getChildren().add(rubberBand);
+        setupRubberBand();
+
+        selection.addListener(this::restyleSelection);
+    }
+
+    // Views exist only for the visible nodes, so a bulk change walks whichever side is smaller
+    private void restyleSelection(BitSet changed) {
+        if (changed.cardinality() > visibleViews.size()) {
+            visibleViews.forEach((node, view) -> view.setSelected(selection.isSelected(node)));
+            return;
+        }
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            Node node = selection.getNode(i);
+            NodeView view = visibleViews.get(node);
+            if (view != null) {
+                view.setSelected(selection.isSelected(node));
+            }
+        }
+    }
+
+    public void addNode(Node node) {
+        graph.addNode(node);
+        showNode(node);
+        history.checkpoint();
+    }
+
+    public void removeNode(Node node) {
+        removeNodes(List.of(node));
+    }
+
+    // One redraw and one undo step for the lot
+    public void removeNodes(Collection<Node> removed) {
+        for (Node node : removed) {
+            graph.getConnections(node).forEach(wireLayer::remove);
+            graph.removeNode(node);
+            hideNode(node);
+        }
+        requestRedraw();
+        history.checkpoint();
+    }
+
+    public void removeSelected() {
+        removeNodes(selection.getSelectedNodes());
+    }
+
+    public void selectAll() {
+        selection.selectAll();
+    }
+
+    public void invertSelection() {
+        selection.invert();
+    }
+
+    public void clearSelection() {
+        selection.clear();
+    }
+
+    private void showNode(Node node) {
+        selection.register(node);
+        nodes.add(node);
+        Rectangle2D bounds = NodeView.estimateBounds(node);
+        index.insert(node, bounds);
+        if (bounds.intersects(boundArea)) {
+            bindView(node);
+        }
+    }
+
+    private void hideNode(Node node) {
+        movedNodes.remove(node);
+        nodes.remove(node);
+        index.remove(node);
+        selection.unregister(node);
+        NodeView view = visibleViews.remove(node);
+        if (view != null) {
+            worldLayer.getChildren().remove(view);
+            viewPool.release(view);
+        }
+    }
+
+    // Accepts the pins in either order; returns null when they cannot be wired together
+    public Connection connect(Pin first, Pin second) {
+        Pin source = first.isInput() ? second : first;
+        Pin target = first.isInput() ? first : second;
+        if (!graph.canConnect(source, target)) {
+            return null;
+        }
+        Connection replaced = graph.getIncoming(target);
+        if (replaced != null) {
+            wireLayer.remove(replaced);
+        }
+        Connection connection = graph.connect(source, target);
+        updateWire(connection);
+        requestRedraw();
+        history.checkpoint();
+        return connection;
+    }
+
+    public void disconnect(Connection connection) {
+        graph.disconnect(connection);
+        wireLayer.remove(connection);
+        requestRedraw();
+        history.checkpoint();
+    }
+
+    public boolean undo() {
+        return travel(history::undo);
+    }
+
+    public boolean redo() {
+        return travel(history::redo);
+    }
+
+    // The graph restores itself; views follow the same difference between the two states
+    private boolean travel(BooleanSupplier step) {
+        GraphState before = graph.getState();
+        if (!step.getAsBoolean()) return false;
+        before.diff(graph.getState(), new GraphState.Changes() {
+            @Override
+            public void nodeAdded(Node node, Point2D position) { showNode(node); }
+            @Override
+            public void nodeRemoved(Node node) { hideNode(node); }
+            @Override
+            public void nodeMoved(Node node, Point2D position) { placeNode(node, position.getX(), position.getY()); }
+            @Override
+            public void connected(Connection connection) { updateWire(connection); }
+            @Override
+            public void disconnected(Connection connection) { wireLayer.remove(connection); }
+        });
+        requestRedraw();
+        return true;
+    }
+
+    public Point2D screenToWorld(double x, double y) {
+        return camera.screenToWorld(x, y);
+    }
+
+    // Pans so the node sits in the middle of the canvas
+    public void focusOnNode(Node node) {
+        Rectangle2D bounds = index.getBounds(node);
+        camera.centerOn(new Point2D(bounds.getMinX() + bounds.getWidth() / 2, bounds.getMinY() + bounds.getHeight() / 2),
+            getWidth(), getHeight());
+
+        NodeView view = visibleViews.get(node);
+        if (view != null) {
+            String originalStyle = view.getStyle();
+            view.setStyle(originalStyle + "-fx-effect: dropshadow(gaussian, #00ff00, 10, 0.5, 0, 0);");
+            javafx.animation.PauseTransition pause = new javafx.animation.PauseTransition(javafx.util.Duration.seconds(1));
+            pause.setOnFinished(e -> view.setStyle(originalStyle));
+            pause.play();
+        }
+    }
+
+    public void select(Node node, boolean additive) {
+        if (additive) {
+            selection.toggle(node);
+        } else {
+            selection.selectOnly(node);
+        }
+    }
+
+    public boolean isSelected(Node node) {
+        return selection.isSelected(node);
+    }
+
+    public Rectangle2D getVisibleWorldArea() {
+        return camera.getVisibleWorldArea(getWidth(), getHeight());
+    }
+
+    // Camera moves within the area already bound cost nothing beyond the transform
+    private void updateViewport() {
+        Rectangle2D visible = getVisibleWorldArea();
+        if (!contains(boundArea, visible)) {
+            refreshViewport();
+        }
+    }
+
+    private static boolean contains(Rectangle2D outer, Rectangle2D inner) {
+        return inner.getMinX() >= outer.getMinX() && inner.getMinY() >= outer.getMinY() &&
+            inner.getMaxX() <= outer.getMaxX() && inner.getMaxY() <= outer.getMaxY();
+    }
+
+    // Binds views to nodes that entered the viewport and returns the rest to the pool
+    public void refreshViewport() {
+        Rectangle2D visible = getVisibleWorldArea();
+        double margin = VIEWPORT_MARGIN / camera.getScale();
+        boundArea = new Rectangle2D(visible.getMinX() - margin, visible.getMinY() - margin,
+            visible.getWidth() + 2 * margin, visible.getHeight() + 2 * margin);
+        Set<Node> inView = new HashSet<>();
+        index.query(boundArea, inView::add);
+
+        List<Node> left = new ArrayList<>();
+        for (Node node : visibleViews.keySet()) {
+            if (!inView.contains(node)) left.add(node);
+        }
+        for (Node node : left) {
+            NodeView view = visibleViews.remove(node);
+            worldLayer.getChildren().remove(view);
+            viewPool.release(view);
+        }
+
+        for (Node node : inView) {
+            if (!visibleViews.containsKey(node)) {
+                bindView(node);
+            }
+        }
+    }
+
+    private void bindView(Node node) {
+        NodeView view = viewPool.acquire(node);
+        view.setSelected(selection.isSelected(node));
+        visibleViews.put(node, view);
+        worldLayer.getChildren().add(view);
+        view.relocate(node.getPosition().getX(), node.getPosition().getY());
+        if (wireDragSource != null) {
+            view.showTargets(wireDragSource, graph);
+        }
+    }
+
+    // Dims every pin but the valid ends while a wire is dragged
+    private void startWireDrag(Pin source) {
+        wireDragSource = source;
+        getStyleClass().add("wire-dragging");
+        for (NodeView view : visibleViews.values()) {
+            view.showTargets(source, graph);
+        }
+    }
+
+    private void endWireDrag() {
+        wireDragSource = null;
+        getStyleClass().remove("wire-dragging");
+        for (NodeView view : visibleViews.values()) {
+            view.clearTargets();
+        }
+        wireLayer.clearPreview();
+    }
+
+    // World position of a pin: measured on its view when there is one, estimated otherwise
+    private Point2D pinAnchor(Pin pin) {
+        Node node = pin.getParentNode();
+        NodeView view = visibleViews.get(node);
+        Point2D offset = view != null ? view.getPinAnchor(pin) : NodeView.estimatePinAnchor(pin);
+        return node.getPosition().add(offset);
+    }
+
+    private void updateWire(Connection connection) {
+        wireLayer.update(connection, pinAnchor(connection.getSourcePin()), pinAnchor(connection.getTargetPin()));
+    }
+
+    private void markMoved(Node node) {
+        if (!graph.getConnections(node).isEmpty()) {
+            movedNodes.add(node);
+            schedulePulse();
+        }
+    }
+
+    private void requestRedraw() {
+        redrawRequested = true;
+        schedulePulse();
+    }
+
+    private void schedulePulse() {
+        if (!pulseScheduled) {
+            pulseScheduled = true;
+            pulse.start();
+        }
+    }
+
+    // A wire shared by two moved nodes is still recomputed once
+    private void flushWireUpdates() {
+        pulse.stop();
+        pulseScheduled = false;
+        if (!movedNodes.isEmpty()) {
+            Set<Connection> dirty = new HashSet<>();
+            for (Node node : movedNodes) {
+                dirty.addAll(graph.getConnections(node));
+            }
+            movedNodes.clear();
+            dirty.forEach(this::updateWire);
+            redrawRequested = true;
+        }
+        if (redrawRequested) {
+            redrawRequested = false;
+            wireLayer.redraw();
+        }
+    }
+
+    private Pin findPinAt(double sceneX, double sceneY) {
+        Point2D world = worldLayer.sceneToLocal(sceneX, sceneY);
+        for (Node node : index.query(new Rectangle2D(world.getX() - 1, world.getY() - 1, 2, 2))) {
+            NodeView view = visibleViews.get(node);
+            PinView pinView = view != null ? view.findPinView(sceneX, sceneY) : null;
+            if (pinView != null) return pinView.getPin();
+        }
+        return null;
+    }
+
+    private void updateWirePreview(MouseEvent e) {
+        Point2D pointer = worldLayer.sceneToLocal(e.getSceneX(), e.getSceneY());
+        Point2D anchor = pinAnchor(wireDragSource);
+        if (wireDragSource.isInput()) {
+            wireLayer.setPreview(pointer, anchor, wireDragSource.getColor());
+        } else {
+            wireLayer.setPreview(anchor, pointer, wireDragSource.getColor());
+        }
+        requestRedraw();
+    }
+
+    private void setupNodeView(NodeView nodeView) {
+        final Point2D[] dragDelta = new Point2D[1];
+
+        // Dragging from a pin draws a wire instead of moving the node
+        nodeView.addEventFilter(MouseEvent.MOUSE_PRESSED, e -> {
+            PinView pinView = e.getButton() == MouseButton.PRIMARY ? nodeView.findPinView(e.getSceneX(), e.getSceneY()) : null;
+            if (pinView != null) {
+                startWireDrag(pinView.getPin());
+                updateWirePreview(e);
+                e.consume();
+            }
+        });
+
+        nodeView.addEventFilter(MouseEvent.MOUSE_DRAGGED, e -> {
+            if (wireDragSource != null) {
+                updateWirePreview(e);
+                e.consume();
+            }
+        });
+
+        nodeView.addEventFilter(MouseEvent.MOUSE_RELEASED, e -> {
+            if (wireDragSource != null) {
+                Pin target = findPinAt(e.getSceneX(), e.getSceneY());
+                Pin source = wireDragSource;
+                endWireDrag();
+                if (target == null || connect(source, target) == null) {
+                    requestRedraw();
+                }
+                e.consume();
+            }
+        });
+
+        nodeView.setOnMousePressed(e -> {
+            if (e.getButton() == MouseButton.PRIMARY) {
+                Point2D position = nodeView.getNode().getPosition();
+                Point2D pointer = worldLayer.sceneToLocal(e.getSceneX(), e.getSceneY());
+                dragDelta[0] = position.subtract(pointer);
+                e.consume();
+            }
+        });
+
+        nodeView.setOnMouseDragged(e -> {
+            if (e.getButton() == MouseButton.PRIMARY && dragDelta[0] != null) {
+                Node node = nodeView.getNode();
+                Point2D target = worldLayer.sceneToLocal(e.getSceneX(), e.getSceneY()).add(dragDelta[0]);
+                if (selection.isSelected(node)) {
+                    // The whole selection follows, and nothing else is touched
+                    double dx = target.getX() - node.getPosition().getX();
+                    double dy = target.getY() - node.getPosition().getY();
+                    for (Node selected : selection.getSelectedNodes()) {
+                        moveNode(selected, selected.getPosition().getX() + dx, selected.getPosition().getY() + dy);
+                    }
+                } else {
+                    moveNode(node, target.getX(), target.getY());
+                }
+                e.consume();
+            }
+        });
+
+        nodeView.setOnMouseReleased(e -> {
+            if (e.getButton() == MouseButton.PRIMARY) {
+                dragDelta[0] = null;
+                history.checkpoint();
+                e.consume();
+            }
+        });
+
+        nodeView.setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.isStillSincePress()) {
+                select(nodeView.getNode(), e.isControlDown());
+            }
+        });
+
+        // Expanding pins changes the size, keep the index in step with what is drawn
+        nodeView.layoutBoundsProperty().addListener((observable, oldBounds, bounds) -> {
+            Node node = nodeView.getNode();
+            if (visibleViews.get(node) == nodeView && bounds.getWidth() > 0) {
+                index.insert(node, new Rectangle2D(node.getPosition().getX(), node.getPosition().getY(),
+                    bounds.getWidth(), bounds.getHeight()));
+                markMoved(node);
+            }
+        });
+    }
+
+    private void moveNode(Node node, double x, double y) {
+        graph.setPosition(node, new Point2D(x, y));
+        placeNode(node, x, y);
+    }
+
+    private void placeNode(Node node, double x, double y) {
+        Rectangle2D bounds = index.getBounds(node);
+        index.insert(node, new Rectangle2D(x, y, bounds.getWidth(), bounds.getHeight()));
+        NodeView view = visibleViews.get(node);
+        if (view != null) {
+            view.relocate(x, y);
+        }
+        markMoved(node);
+    }
+
+    // Primary drag on empty canvas; Ctrl adds to what was selected
+    private void setupRubberBand() {
+        addEventHandler(MouseEvent.MOUSE_PRESSED, e -> {
+            if (e.getButton() == MouseButton.PRIMARY && !e.isAltDown()) {
+                rubberBandStart = new Point2D(e.getX(), e.getY());
+                rubberBandBase = e.isControlDown() ? selection.snapshot() : new BitSet();
+            }
+        });
+
+        addEventHandler(MouseEvent.MOUSE_DRAGGED, e -> {
+            if (rubberBandStart == null) return;
+            double minX = Math.min(rubberBandStart.getX(), e.getX());
+            double minY = Math.min(rubberBandStart.getY(), e.getY());
+            double maxX = Math.max(rubberBandStart.getX(), e.getX());
+            double maxY = Math.max(rubberBandStart.getY(), e.getY());
+            rubberBand.setX(minX);
+            rubberBand.setY(minY);
+            rubberBand.setWidth(maxX - minX);
+            rubberBand.setHeight(maxY - minY);
+            rubberBand.setVisible(true);
+
+            Point2D from = camera.screenToWorld(minX, minY);
+            Point2D to = camera.screenToWorld(maxX, maxY);
+            BitSet target = (BitSet) rubberBandBase.clone();
+            index.query(new Rectangle2D(from.getX(), from.getY(), to.getX() - from.getX(), to.getY() - from.getY()),
+                node -> target.set(selection.indexOf(node)));
+            selection.replace(target);
+        });
+
+        addEventHandler(MouseEvent.MOUSE_RELEASED, e -> {
+            if (rubberBandStart == null) return;
+            if (!rubberBand.isVisible() && !e.isControlDown()) {
+                // A plain click on empty canvas
+                selection.clear();
+            }
+            rubberBandStart = null;
+            rubberBandBase = null;
+            rubberBand.setVisible(false);
+        });
+    }
+
+    private void setupNavigation() {
+        addEventHandler(MouseEvent.MOUSE_PRESSED, e -> {
+            if (e.getButton() == MouseButton.MIDDLE) {
+                lastPanPosition = new Point2D(e.getSceneX(), e.getSceneY());
+                setCursor(javafx.scene.Cursor.CLOSED_HAND);
+            }
+        });
+
+        addEventHandler(MouseEvent.MOUSE_DRAGGED, e -> {
+            if (e.getButton() == MouseButton.MIDDLE && lastPanPosition != null) {
+                camera.pan(e.getSceneX() - lastPanPosition.getX(), e.getSceneY() - lastPanPosition.getY());
+                lastPanPosition = new Point2D(e.getSceneX(), e.getSceneY());
+            }
+        });
+
+        addEventHandler(MouseEvent.MOUSE_RELEASED, e -> {
+            if (e.getButton() == MouseButton.MIDDLE) {
+                lastPanPosition = null;
+                setCursor(javafx.scene.Cursor.DEFAULT);
+            }
+        });
+
+        // Alt-click breaks the wire under the cursor
+        addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.isAltDown()) {
+                Point2D world = camera.screenToWorld(e.getX(), e.getY());
+                Connection connection = wireLayer.pick(world.getX(), world.getY(), WIRE_PICK_TOLERANCE);
+                if (connection != null) {
+                    disconnect(connection);
+                }
+            }
+        });
+
+        addEventHandler(ScrollEvent.SCROLL, e -> {
+            if (e.getDeltaY() != 0) {
+                camera.zoomAt(e.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, e.getX(), e.getY());
+            }
+            e.consume();
+        });
+    }
+
+    // Getters
+    public Graph getGraph() { return graph; }
+    public Camera getCamera() { return camera; }
+    public GraphHistory getHistory() { return history; }
+    public ObservableList<Node> getNodes() { return FXCollections.unmodifiableObservableList(nodes); }
+    public SelectionModel getSelection() { return selection; }
+    public int getVisibleViewCount() { return visibleViews.size(); }
+    public NodeView getView(Node node) { return visibleViews.get(node); }
+}
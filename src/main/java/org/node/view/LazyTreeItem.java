@@ -0,0 +1,98 @@
+package org.node.view;
+
+import javafx.scene.control.TreeItem;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Tree item whose children are built the first time it is expanded. Loaded items
+// are tracked in a shared LRU; past its capacity the least recently expanded items
+// that are collapsed or out of view drop their children, loaded descendants included,
+// and rebuild them on the next expansion.
+public class LazyTreeItem<T> extends TreeItem<T> {
+    private final Supplier<List<TreeItem<T>>> loader;
+    private final LoadedItems loadedItems;
+    private boolean loaded;
+
+    public LazyTreeItem(T value, Supplier<List<TreeItem<T>>> loader, LoadedItems loadedItems) {
+        super(value);
+        this.loader = loader;
+        this.loadedItems = loadedItems;
+        expandedProperty().addListener((observable, wasExpanded, expanded) -> {
+            if (expanded) {
+                load();
+            }
+        });
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return false;
+    }
+
+    private void load() {
+        if (!loaded) {
+            getChildren().setAll(loader.get());
+            loaded = true;
+        }
+        loadedItems.touch(this);
+    }
+
+    // Collapsed, or expanded but hidden under a collapsed ancestor or in a tree no longer shown
+    private boolean canUnload(TreeItem<?> root) {
+        if (!isExpanded()) return true;
+        TreeItem<?> top = this;
+        while (top.getParent() != null) {
+            top = top.getParent();
+            if (!top.isExpanded()) return true;
+        }
+        return top != root;
+    }
+
+    // Loaded children leave the tree with their parent, so they leave the LRU too
+    private void unload() {
+        for (TreeItem<T> child : getChildren()) {
+            if (child instanceof LazyTreeItem && ((LazyTreeItem<?>) child).loaded) {
+                LazyTreeItem<?> item = (LazyTreeItem<?>) child;
+                loadedItems.items.remove(item);
+                item.unload();
+            }
+        }
+        getChildren().clear();
+        loaded = false;
+    }
+
+    public static class LoadedItems {
+        private final int capacity;
+        private final LinkedHashMap<LazyTreeItem<?>, Boolean> items = new LinkedHashMap<>(16, 0.75f, true);
+
+        public LoadedItems(int capacity) {
+            this.capacity = capacity;
+        }
+
+        // The item just expanded is on screen, so its root is the tree being shown
+        void touch(LazyTreeItem<?> item) {
+            items.put(item, Boolean.TRUE);
+            TreeItem<?> root = item;
+            while (root.getParent() != null) {
+                root = root.getParent();
+            }
+            while (items.size() > capacity) {
+                LazyTreeItem<?> eldest = null;
+                for (LazyTreeItem<?> candidate : items.keySet()) {
+                    if (candidate != item && candidate.canUnload(root)) {
+                        eldest = candidate;
+                        break;
+                    }
+                }
+                if (eldest == null) break;
+                items.remove(eldest);
+                eldest.unload();
+            }
+        }
+
+        public int size() {
+            return items.size();
+        }
+    }
+}
@@ -1,24 +1,33 @@
 package org.node.view;
 
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.css.PseudoClass;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.Priority;
-import javafx.geometry.Insets;
 import java.util.*;
 import java.util.function.Consumer;
 import org.node.model.Node;
 
+// Virtualized list over the canvas's node list and selection. Changes arrive as
+// deltas: the ListView only touches the rows affected, and the counter is
+// updated from the collection sizes.
 public class NodeExplorer extends VBox {
-    private VBox nodeContainer;
-    private Consumer<NodeView> onNodeSelected;
+    private static final PseudoClass NODE_SELECTED = PseudoClass.getPseudoClass("node-selected");
+
+    private final ObservableList<Node> nodes;
+    private final SelectionModel selection;
+    private Consumer<Node> onNodeSelected;
     private Label counterLabel;
-    private Map<Node, Button> nodeButtons;
-    private Set<NodeView> selectedNodes;
+    private ListView<Node> nodeList;
+    // Rows currently on screen, so a selection change restyles one cell
+    private final Map<Node, ListCell<Node>> visibleCells = new HashMap<>();
 
-    public NodeExplorer(Consumer<NodeView> onNodeSelected) {
+    public NodeExplorer(ObservableList<Node> nodes, SelectionModel selection, Consumer<Node> onNodeSelected) {
+        this.nodes = nodes;
+        this.selection = selection;
         this.onNodeSelected = onNodeSelected;
-        this.nodeButtons = new HashMap<>();
-        this.selectedNodes = new HashSet<>();
         setupUI();
     }
 
@@ -45,96 +54,69 @@ public class NodeExplorer extends VBox {
         counterLabel = new Label("NO NODES");
         counterLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: yellow;");
 
-        // Container for nodes
-        nodeContainer = new VBox(5);
-        nodeContainer.setStyle("""
-            -fx-background-color: #3D3D3D;
-            -fx-padding: 5;
-            -fx-spacing: 5;
-            -fx-border-color: lime;
-            -fx-border-width: 1;
-        """);
-        VBox.setVgrow(nodeContainer, Priority.ALWAYS);
+        // Only the visible rows get a cell
+        nodeList = new ListView<>(nodes);
+        nodeList.getStyleClass().add("node-explorer-list");
+        nodeList.setCellFactory(list -> new NodeCell());
+        VBox.setVgrow(nodeList, Priority.ALWAYS);
+
+        nodes.addListener((ListChangeListener<Node>) change -> updateCounter());
+        selection.addListener(changed -> {
+            if (changed.cardinality() > visibleCells.size()) {
+                visibleCells.forEach((node, cell) -> cell.pseudoClassStateChanged(NODE_SELECTED, selection.isSelected(node)));
+            } else {
+                for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+                    Node node = selection.getNode(i);
+                    ListCell<Node> cell = visibleCells.get(node);
+                    if (cell != null) {
+                        cell.pseudoClassStateChanged(NODE_SELECTED, selection.isSelected(node));
+                    }
+                }
+            }
+            updateCounter();
+        });
+        updateCounter();
 
-        getChildren().addAll(header, counterLabel, nodeContainer);
+        getChildren().addAll(header, counterLabel, nodeList);
     }
 
-    public void updateNodeList(List<NodeView> nodes) {
-        nodeContainer.getChildren().clear();
-        nodeButtons.clear();
-        
-        for (NodeView nodeView : nodes) {
-            Button nodeButton = createNodeButton(nodeView);
-            nodeButtons.put(nodeView.getNode(), nodeButton);
-            nodeContainer.getChildren().add(nodeButton);
-            
-            // Update button state if node is selected
-            updateButtonState(nodeView);
+    private void updateCounter() {
+        if (nodes.isEmpty()) {
+            counterLabel.setText("NO NODES");
+            return;
         }
-        
-        int selectedCount = (int) nodes.stream().filter(NodeView::isSelected).count();
         String countText = nodes.size() + " NODES";
-        if (selectedCount > 0) {
-            countText += " (" + selectedCount + " selected)";
+        if (!selection.isEmpty()) {
+            countText += " (" + selection.size() + " selected)";
         }
         counterLabel.setText(countText);
     }
-    
-    private Button createNodeButton(NodeView nodeView) {
-        Button button = new Button(nodeView.getNode().getTitle());
-        button.setMaxWidth(Double.MAX_VALUE);
-        
-        button.setOnAction(e -> {
-            if (onNodeSelected != null) {
-                onNodeSelected.accept(nodeView);
-                updateButtonState(nodeView);
+
+    private class NodeCell extends ListCell<Node> {
+        NodeCell() {
+            getStyleClass().add("node-explorer-cell");
+            setOnMouseClicked(e -> {
+                if (getItem() != null && onNodeSelected != null) {
+                    onNodeSelected.accept(getItem());
+                }
+            });
+        }
+
+        @Override
+        protected void updateItem(Node item, boolean empty) {
+            Node previous = getItem();
+            if (previous != null && visibleCells.get(previous) == this) {
+                visibleCells.remove(previous);
+            }
+            super.updateItem(item, empty);
+            if (empty || item == null) {
+                setText(null);
+                pseudoClassStateChanged(NODE_SELECTED, false);
+            } else {
+                setText(item.getTitle());
+                visibleCells.put(item, this);
+                pseudoClassStateChanged(NODE_SELECTED, selection.isSelected(item));
             }
-        });
-        
-        return button;
-    }
-    
-    private void updateButtonState(NodeView nodeView) {
-        Button button = nodeButtons.get(nodeView.getNode());
-        if (button == null) return;
-        
-        if (nodeView.isSelected()) {
-            button.setStyle("""
-                -fx-background-color: #6a1b9a;
-                -fx-text-fill: white;
-                -fx-font-size: 12px;
-                -fx-padding: 5 10;
-                -fx-background-radius: 3;
-                -fx-border-color: #9c27b0;
-                -fx-border-radius: 3;
-                -fx-border-width: 2;
-                -fx-cursor: hand;
-            """);
-        } else {
-            button.setStyle("""
-                -fx-background-color: #4D4D4D;
-                -fx-text-fill: white;
-                -fx-font-size: 12px;
-                -fx-padding: 5 10;
-                -fx-background-radius: 3;
-                -fx-border-color: #666666;
-                -fx-border-radius: 3;
-                -fx-border-width: 1;
-                -fx-cursor: hand;
-            """);
         }
-        
-        // Add hover effects
-        button.setOnMouseEntered(e -> {
-            String currentStyle = button.getStyle();
-            button.setStyle(currentStyle.replace(
-                nodeView.isSelected() ? "#6a1b9a" : "#4D4D4D",
-                nodeView.isSelected() ? "#7b1fa2" : "#5D5D5D"
-            ));
-        });
-        
-        button.setOnMouseExited(e -> {
-            updateButtonState(nodeView);
-        });
     }
 }
@@ -2,25 +2,50 @@ package org.node.view;
 
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
+import javafx.application.Platform;
 import org.node.model.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.function.Consumer;
-import javafx.geometry.Point2D;
-import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class NodePalette extends VBox {
-    private TreeView<String> treeView;
-    private TriConsumer<String, String, Double, Double> onNodeCreated;
+    private static final String ROOT_LABEL = "Java Classes";
+    private static final int MAX_RESULTS = 200;
+    // Expanded packages and classes that keep their children once collapsed
+    private static final int LOADED_ITEM_LIMIT = 256;
+    private TreeView<PaletteEntry> treeView;
+    private TreeItem<PaletteEntry> browseRoot;
+    private final LazyTreeItem.LoadedItems loadedItems = new LazyTreeItem.LoadedItems(LOADED_ITEM_LIMIT);
+    private NodeRequestHandler onNodeCreated;
 
-    public interface TriConsumer<T, U, V, W> {
-        void accept(T t, U u, V v, W w);
+    // Searches run on one background thread; each keystroke supersedes the previous query
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "palette-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private SearchIndex<PaletteEntry> searchIndex;
+    private SearchIndex.Result<PaletteEntry> lastResult;
+    private Future<?> pendingSearch;
+    private long searchGeneration;
+
+    public interface NodeRequestHandler {
+        void accept(String signature, double x, double y);
     }
 
     public NodePalette() {
         setupUI();
     }
 
-    public void setOnNodeCreated(TriConsumer<String, String, Double, Double> callback) {
+    public void setOnNodeCreated(NodeRequestHandler callback) {
         this.onNodeCreated = callback;
     }
 
@@ -40,32 +65,33 @@ public class NodePalette extends VBox {
 
         // Set cell factory for tree view to style cells
         treeView.setCellFactory(tv -> {
-            TreeCell<String> cell = new TreeCell<String>() {
+            TreeCell<PaletteEntry> cell = new TreeCell<PaletteEntry>() {
                 @Override
-                protected void updateItem(String item, boolean empty) {
+                protected void updateItem(PaletteEntry item, boolean empty) {
                     super.updateItem(item, empty);
                     if (empty || item == null) {
                         setText(null);
                         setGraphic(null);
                         setOnDragDetected(null);
                     } else {
-                        setText(item);
+                        setText(item.getLabel());
                         setStyle("-fx-text-fill: white; -fx-background-color: transparent;");
                         
                         // Highlight on hover
                         setOnMouseEntered(e -> setStyle("-fx-text-fill: white; -fx-background-color: #3D3D3D;"));
                         setOnMouseExited(e -> setStyle("-fx-text-fill: white; -fx-background-color: transparent;"));
                         
-                        // Setup drag and drop
-                        if (getTreeItem() != null && getTreeItem().getParent() != null && 
-                            !getTreeItem().getParent().getValue().equals("Java Util Classes")) {
+                        // Setup drag and drop, the payload is the method's registry signature
+                        if (item.isMethod()) {
                             setOnDragDetected(event -> {
                                 javafx.scene.input.Dragboard db = startDragAndDrop(javafx.scene.input.TransferMode.COPY);
                                 javafx.scene.input.ClipboardContent content = new javafx.scene.input.ClipboardContent();
-                                content.putString(getTreeItem().getParent().getValue() + "." + getItem());
+                                content.putString(getItem().getSignature());
                                 db.setContent(content);
                                 event.consume();
                             });
+                        } else {
+                            setOnDragDetected(null);
                         }
                     }
                 }
@@ -81,59 +107,154 @@ public class NodePalette extends VBox {
 
         // Setup search functionality
         searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filterTree(newValue);
+            search(newValue);
         });
     }
 
+    // Packages and classes only build their rows when expanded, so the whole catalog costs one row per package
     private void populateTree() {
-        TreeItem<String> root = new TreeItem<>("Java Util Classes");
-        root.setExpanded(true);
+        if (browseRoot == null) {
+            browseRoot = new TreeItem<>(PaletteEntry.forGroup(ROOT_LABEL));
+            browseRoot.setExpanded(true);
 
-        List<Class<?>> classes = ClassScanner.scanJavaUtilClasses();
-        for (Class<?> cls : classes) {
-            TreeItem<String> classNode = new TreeItem<>(cls.getSimpleName());
-            
-            // Add constructor
-            TreeItem<String> constructor = new TreeItem<>("Create");
-            classNode.getChildren().add(constructor);
-            
-            // Add methods
-            for (Method method : ClassScanner.getRelevantMethods(cls)) {
-                if (!method.getName().startsWith("get") && !method.getName().startsWith("set")) {
-                    TreeItem<String> methodNode = new TreeItem<>(method.getName());
-                    classNode.getChildren().add(methodNode);
-                }
+            Map<String, List<CatalogClass>> packages = new TreeMap<>();
+            for (CatalogClass cls : paletteClasses()) {
+                packages.computeIfAbsent(cls.getPackageName(), pkg -> new ArrayList<>()).add(cls);
             }
-            
-            root.getChildren().add(classNode);
+            packages.forEach((pkg, classes) -> browseRoot.getChildren().add(createPackageItem(pkg, classes)));
         }
+        treeView.setRoot(browseRoot);
+    }
 
-        treeView.setRoot(root);
+    private List<CatalogClass> paletteClasses() {
+        return ClassCatalog.getDefault().getClasses();
     }
 
-    private void filterTree(String searchText) {
+    private void search(String searchText) {
+        if (pendingSearch != null) {
+            pendingSearch.cancel(true);
+        }
+        long generation = ++searchGeneration;
         if (searchText == null || searchText.isEmpty()) {
+            lastResult = null;
             populateTree();
             return;
         }
 
-        TreeItem<String> root = new TreeItem<>("Java Util Classes");
-        root.setExpanded(true);
+        SearchIndex.Result<PaletteEntry> previous = lastResult;
+        pendingSearch = searchExecutor.submit(() -> {
+            try {
+                SearchIndex<PaletteEntry> index = getSearchIndex();
+                SearchIndex.Result<PaletteEntry> result = index.refine(previous, searchText);
+                Platform.runLater(() -> {
+                    if (generation == searchGeneration) {
+                        lastResult = result;
+                        showResults(result);
+                    }
+                });
+            } catch (CancellationException e) {
+                // A newer query replaced this one
+            }
+        });
+    }
 
-        List<Class<?>> classes = ClassScanner.scanJavaUtilClasses();
-        for (Class<?> cls : classes) {
-            if (cls.getSimpleName().toLowerCase().contains(searchText.toLowerCase())) {
-                TreeItem<String> classNode = new TreeItem<>(cls.getSimpleName());
-                for (Method method : ClassScanner.getRelevantMethods(cls)) {
-                    if (!method.getName().startsWith("get") && !method.getName().startsWith("set")) {
-                        TreeItem<String> methodNode = new TreeItem<>(method.getName());
-                        classNode.getChildren().add(methodNode);
+    // Built on the search thread the first time it is needed
+    private SearchIndex<PaletteEntry> getSearchIndex() {
+        if (searchIndex == null) {
+            SearchIndex.Builder<PaletteEntry> builder = new SearchIndex.Builder<>();
+            for (CatalogClass cls : paletteClasses()) {
+                builder.add(cls.getSimpleName(), PaletteEntry.forClass(cls));
+                for (CatalogMethod method : cls.getMethods()) {
+                    if (!method.isConstructor()) {
+                        builder.add(method.getName(), PaletteEntry.forMethod(cls, method));
                     }
                 }
-                root.getChildren().add(classNode);
             }
+            searchIndex = builder.build();
         }
+        return searchIndex;
+    }
+
+    // Ranked hits grouped under their class, in order of each class's best hit. A class that
+    // matched lists all its members with its method hits first; otherwise only the method hits.
+    private void showResults(SearchIndex.Result<PaletteEntry> result) {
+        TreeItem<PaletteEntry> root = new TreeItem<>(PaletteEntry.forGroup(ROOT_LABEL));
+        root.setExpanded(true);
+
+        Map<CatalogClass, List<PaletteEntry>> methodHits = new LinkedHashMap<>();
+        Set<CatalogClass> classHits = new HashSet<>();
+        for (PaletteEntry hit : result.top(MAX_RESULTS)) {
+            List<PaletteEntry> hits = methodHits.computeIfAbsent(hit.getOwner(), cls -> new ArrayList<>());
+            if (hit.isMethod()) {
+                hits.add(hit);
+            } else {
+                classHits.add(hit.getOwner());
+            }
+        }
+        methodHits.forEach((cls, hits) -> {
+            TreeItem<PaletteEntry> classItem;
+            if (classHits.contains(cls)) {
+                classItem = createClassItem(cls, hits);
+            } else {
+                classItem = new TreeItem<>(PaletteEntry.forClass(cls));
+                for (PaletteEntry hit : hits) {
+                    classItem.getChildren().add(new TreeItem<>(hit));
+                }
+            }
+            classItem.setExpanded(!hits.isEmpty());
+            root.getChildren().add(classItem);
+        });
 
         treeView.setRoot(root);
     }
+
+    private TreeItem<PaletteEntry> createPackageItem(String packageName, List<CatalogClass> classes) {
+        return new LazyTreeItem<>(PaletteEntry.forGroup(packageName), () -> {
+            List<TreeItem<PaletteEntry>> items = new ArrayList<>(classes.size());
+            for (CatalogClass cls : classes) {
+                items.add(createClassItem(cls));
+            }
+            return items;
+        }, loadedItems);
+    }
+
+    private TreeItem<PaletteEntry> createClassItem(CatalogClass cls) {
+        return createClassItem(cls, List.of());
+    }
+
+    // Members with the given hits first, each method listed once
+    private TreeItem<PaletteEntry> createClassItem(CatalogClass cls, List<PaletteEntry> hits) {
+        return new LazyTreeItem<>(PaletteEntry.forClass(cls), () -> {
+            List<TreeItem<PaletteEntry>> items = new ArrayList<>();
+            Set<CatalogMethod> listed = new HashSet<>();
+            for (PaletteEntry hit : hits) {
+                items.add(new TreeItem<>(hit));
+                listed.add(hit.getMethod());
+            }
+            for (TreeItem<PaletteEntry> member : createMemberItems(cls)) {
+                if (!listed.contains(member.getValue().getMethod())) {
+                    items.add(member);
+                }
+            }
+            return items;
+        }, loadedItems);
+    }
+
+    private static List<TreeItem<PaletteEntry>> createMemberItems(CatalogClass cls) {
+        List<TreeItem<PaletteEntry>> items = new ArrayList<>();
+        boolean instantiable = !cls.isInterface() && !cls.isAbstract();
+
+        // Constructors first, one entry per overload
+        for (CatalogMethod method : cls.getMethods()) {
+            if (method.isConstructor() && instantiable) {
+                items.add(new TreeItem<>(PaletteEntry.forMethod(cls, method)));
+            }
+        }
+        for (CatalogMethod method : cls.getMethods()) {
+            if (!method.isConstructor() && !method.getName().startsWith("get") && !method.getName().startsWith("set")) {
+                items.add(new TreeItem<>(PaletteEntry.forMethod(cls, method)));
+            }
+        }
+        return items;
+    }
 }
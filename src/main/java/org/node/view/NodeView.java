@@ -1,128 +1,232 @@
 package org.node.view;
 
-import javafx.geometry.Insets;
+import javafx.css.PseudoClass;
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.control.Label;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Region;
-import javafx.scene.paint.Color;
 import javafx.scene.control.Button;
+import org.node.model.Graph;
 import org.node.model.Node;
 import org.node.model.Pin;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
-import java.util.ArrayList;
 
+// Look comes from the node-view rules in styles.css. Pins past MAX_VISIBLE_PINS get
+// no row until their section is expanded, and rows are recycled when the view is
+// rebound to another node.
 public class NodeView extends Region {
-    private Node node;
-    private VBox content;
-    private Map<Pin, PinView> pinViews;
+    private static final PseudoClass SELECTED = PseudoClass.getPseudoClass("selected");
     private static final double NODE_WIDTH = 200;
     private static final double HEADER_HEIGHT = 30;
     private static final int MAX_VISIBLE_PINS = 5;
-    private boolean pinsExpanded = false;
-    private VBox inputPinsBox;
-    private VBox outputPinsBox;
+    private static final double PIN_ROW_HEIGHT = 22;
+
+    private Node node;
+    private final VBox content = new VBox();
+    private final Label titleLabel = new Label();
+    private final PinSection inputSection = new PinSection(true);
+    private final PinSection outputSection = new PinSection(false);
+    private final Map<Pin, PinView> pinViews = new HashMap<>();
+    private final Deque<PinRow> spareRows = new ArrayDeque<>();
     private boolean selected = false;
-    private static final String STYLE_NORMAL = "-fx-background-color: #2D2D2D; -fx-background-radius: 5; -fx-border-color: #3D3D3D; -fx-border-radius: 5; -fx-border-width: 1;";
-    private static final String STYLE_SELECTED = "-fx-background-color: #4D4D4D; -fx-background-radius: 5; -fx-border-color: #00A5E5; -fx-border-width: 2; -fx-border-radius: 5;";
 
     public NodeView(Node node) {
-        this.node = node;
-        this.pinViews = new HashMap<>();
-        setupNodeView();
-    }
-
-    private void setupNodeView() {
-        content = new VBox(5);
-        content.setPadding(new Insets(5));
-        content.setStyle(STYLE_NORMAL);
-
-        // Header
-        Label titleLabel = new Label(node.getTitle());
-        titleLabel.setStyle("-fx-text-fill: white; -fx-font-weight: bold;");
+        content.getStyleClass().add("node-view");
+        titleLabel.getStyleClass().add("node-title");
         titleLabel.setPrefHeight(HEADER_HEIGHT);
-        content.getChildren().add(titleLabel);
-
-        // Input pins
-        inputPinsBox = new VBox(5);
-        setupPinSection(node.getInputPins(), inputPinsBox, true);
-        content.getChildren().add(inputPinsBox);
-
-        // Output pins
-        outputPinsBox = new VBox(5);
-        setupPinSection(node.getOutputPins(), outputPinsBox, false);
-        content.getChildren().add(outputPinsBox);
-
+        content.getChildren().addAll(titleLabel, inputSection.box, outputSection.box);
         getChildren().add(content);
+        bind(node);
+    }
+
+    // Points the view at another node, reusing its rows, so pooled views stay cheap
+    public void bind(Node node) {
+        this.node = node;
+        titleLabel.setText(node.getTitle());
+        inputSection.setPins(node.getInputPins());
+        outputSection.setPins(node.getOutputPins());
+        setSelected(false);
         setLayoutX(node.getPosition().getX());
         setLayoutY(node.getPosition().getY());
     }
 
-    private void setupPinSection(List<Pin> pins, VBox pinBox, boolean isInput) {
-        if (pins.isEmpty()) return;
+    // Size before the view exists: header plus the collapsed pin rows
+    public static Rectangle2D estimateBounds(Node node) {
+        int inputRows = Math.min(MAX_VISIBLE_PINS + 1, node.getInputPins().size());
+        int outputRows = Math.min(MAX_VISIBLE_PINS + 1, node.getOutputPins().size());
+        double height = HEADER_HEIGHT + 20 + (inputRows + outputRows) * PIN_ROW_HEIGHT;
+        return new Rectangle2D(node.getPosition().getX(), node.getPosition().getY(), NODE_WIDTH, height);
+    }
+
+    private class PinSection {
+        final VBox box = new VBox();
+        final boolean input;
+        List<Pin> pins = List.of();
+        Button toggle;
+        boolean expanded;
+
+        PinSection(boolean input) {
+            this.input = input;
+            box.getStyleClass().add("pin-section");
+        }
 
-        List<Pin> visiblePins = pins.subList(0, Math.min(MAX_VISIBLE_PINS, pins.size()));
-        for (Pin pin : visiblePins) {
-            addPinToBox(pin, pinBox, isInput);
+        void setPins(List<Pin> pins) {
+            releaseRows(0);
+            box.getChildren().clear();
+            this.pins = pins;
+            expanded = false;
+            addRows(0, Math.min(MAX_VISIBLE_PINS, pins.size()));
+            if (pins.size() > MAX_VISIBLE_PINS) {
+                showToggle();
+            }
         }
 
-        if (pins.size() > MAX_VISIBLE_PINS) {
-            Button expandButton = new Button((pins.size() - MAX_VISIBLE_PINS) + " more...");
-            expandButton.setStyle("-fx-background-color: #3D3D3D; -fx-text-fill: white; -fx-cursor: hand;");
-            
-            expandButton.setOnAction(e -> {
-                pinBox.getChildren().remove(expandButton);
-                for (Pin pin : pins.subList(MAX_VISIBLE_PINS, pins.size())) {
-                    addPinToBox(pin, pinBox, isInput);
+        void addRows(int from, int to) {
+            for (Pin pin : pins.subList(from, to)) {
+                PinRow row = spareRows.isEmpty() ? new PinRow() : spareRows.pop();
+                row.bind(pin, input);
+                pinViews.put(pin, row.pinView);
+                box.getChildren().add(row);
+            }
+        }
+
+        // Returns the rows from the given index on to the spare list
+        void releaseRows(int from) {
+            List<javafx.scene.Node> rows = box.getChildren();
+            for (int i = rows.size() - 1; i >= from; i--) {
+                javafx.scene.Node child = rows.get(i);
+                if (child instanceof PinRow) {
+                    PinRow row = (PinRow) child;
+                    pinViews.remove(row.pinView.getPin());
+                    spareRows.push(row);
                 }
-                
-                // Add collapse button
-                Button collapseButton = new Button("Show less");
-                collapseButton.setStyle("-fx-background-color: #3D3D3D; -fx-text-fill: white; -fx-cursor: hand;");
-                collapseButton.setOnAction(e2 -> {
-                    pinBox.getChildren().clear();
-                    for (Pin pin : visiblePins) {
-                        addPinToBox(pin, pinBox, isInput);
-                    }
-                    pinBox.getChildren().add(expandButton);
+                rows.remove(i);
+            }
+        }
+
+        void showToggle() {
+            if (toggle == null) {
+                toggle = new Button();
+                toggle.getStyleClass().add("pin-toggle");
+                toggle.setOnAction(e -> {
+                    if (expanded) collapse(); else expand();
                 });
-                pinBox.getChildren().add(collapseButton);
-            });
-            
-            pinBox.getChildren().add(expandButton);
+            }
+            toggle.setText(expanded ? "Show less" : (pins.size() - MAX_VISIBLE_PINS) + " more...");
+            box.getChildren().add(toggle);
+        }
+
+        void expand() {
+            box.getChildren().remove(toggle);
+            addRows(MAX_VISIBLE_PINS, pins.size());
+            expanded = true;
+            showToggle();
+        }
+
+        void collapse() {
+            releaseRows(MAX_VISIBLE_PINS);
+            expanded = false;
+            showToggle();
         }
     }
 
-    private void addPinToBox(Pin pin, VBox pinBox, boolean isInput) {
-        PinView pinView = new PinView(pin);
-        pinViews.put(pin, pinView);
-        HBox pinContainer = new HBox(5);
-        Label label = new Label(pin.getLabel());
-        label.setStyle("-fx-text-fill: white;"); // Make label text white
-
-        if (isInput) {
-            pinContainer.getChildren().addAll(pinView, label);
-        } else {
-            Region spacer = new Region();
-            spacer.setPrefWidth(NODE_WIDTH - 50);
-            pinContainer.getChildren().addAll(spacer, label, pinView);
+    private static class PinRow extends HBox {
+        PinView pinView;
+        final Label label = new Label();
+
+        PinRow() {
+            getStyleClass().add("pin-row");
+            label.getStyleClass().add("pin-label");
+        }
+
+        void bind(Pin pin, boolean input) {
+            if (pinView == null) {
+                pinView = new PinView(pin);
+            } else {
+                pinView.setPin(pin);
+            }
+            label.setText(pin.getLabel());
+            getStyleClass().remove("output-row");
+            if (input) {
+                getChildren().setAll(pinView, label);
+            } else {
+                getStyleClass().add("output-row");
+                getChildren().setAll(label, pinView);
+            }
         }
-        pinBox.getChildren().add(pinContainer);
     }
 
     public PinView getPinView(Pin pin) {
         return pinViews.get(pin);
     }
 
+    // Where wires attach, relative to the node's position
+    public Point2D getPinAnchor(Pin pin) {
+        PinView pinView = pinViews.get(pin);
+        if (pinView == null || content.getHeight() == 0) {
+            return estimatePinAnchor(pin);
+        }
+        double x = 0;
+        double y = 0;
+        for (javafx.scene.Node n = pinView; n != this && n != null; n = n.getParent()) {
+            x += n.getLayoutX() + n.getTranslateX();
+            y += n.getLayoutY() + n.getTranslateY();
+        }
+        return new Point2D(x, y);
+    }
+
+    // Same row arithmetic as estimateBounds; pins behind "more..." attach to that button's row
+    public static Point2D estimatePinAnchor(Pin pin) {
+        Node node = pin.getParentNode();
+        List<Pin> pins = pin.isInput() ? node.getInputPins() : node.getOutputPins();
+        int row = Math.min(MAX_VISIBLE_PINS, pins.indexOf(pin));
+        if (!pin.isInput()) {
+            row += Math.min(MAX_VISIBLE_PINS + 1, node.getInputPins().size());
+        }
+        double y = HEADER_HEIGHT + 10 + row * PIN_ROW_HEIGHT + PIN_ROW_HEIGHT / 2;
+        return new Point2D(pin.isInput() ? 10 : NODE_WIDTH, y);
+    }
+
+    public PinView findPinView(double sceneX, double sceneY) {
+        for (PinView pinView : pinViews.values()) {
+            if (pinView.getCircle().localToScene(pinView.getCircle().getBoundsInLocal()).contains(sceneX, sceneY)) {
+                return pinView;
+            }
+        }
+        return null;
+    }
+
+    // Highlights the pins a wire dragged from the given pin could attach to
+    public void showTargets(Pin dragged, Graph graph) {
+        for (PinView pinView : pinViews.values()) {
+            Pin pin = pinView.getPin();
+            boolean valid = pin.isInput() != dragged.isInput() && (dragged.isInput()
+                ? graph.canConnect(pin, dragged)
+                : graph.canConnect(dragged, pin));
+            pinView.setConnectable(valid);
+        }
+    }
+
+    public void clearTargets() {
+        for (PinView pinView : pinViews.values()) {
+            pinView.setConnectable(false);
+        }
+    }
+
     public Node getNode() {
         return node;
     }
 
     public void setSelected(boolean selected) {
+        if (this.selected == selected) return;
         this.selected = selected;
-        content.setStyle(selected ? STYLE_SELECTED : STYLE_NORMAL);
+        content.pseudoClassStateChanged(SELECTED, selected);
     }
 
     public boolean isSelected() {
@@ -0,0 +1,42 @@
+package org.node.view;
+
+import org.node.model.Node;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+// Recycles NodeViews that scrolled out of view. Handlers are installed once, when a
+// view is first created, and read the bound node at event time.
+public class NodeViewPool {
+    private final Deque<NodeView> idle = new ArrayDeque<>();
+    private final int maxIdle;
+    private final Consumer<NodeView> onCreate;
+    private int created;
+
+    public NodeViewPool(int maxIdle, Consumer<NodeView> onCreate) {
+        this.maxIdle = maxIdle;
+        this.onCreate = onCreate;
+    }
+
+    public NodeView acquire(Node node) {
+        NodeView view = idle.pollFirst();
+        if (view == null) {
+            view = new NodeView(node);
+            onCreate.accept(view);
+            created++;
+        } else {
+            view.bind(node);
+        }
+        return view;
+    }
+
+    public void release(NodeView view) {
+        if (idle.size() < maxIdle) {
+            idle.addFirst(view);
+        }
+    }
+
+    // Getters
+    public int getIdleCount() { return idle.size(); }
+    public int getCreatedCount() { return created; }
+}
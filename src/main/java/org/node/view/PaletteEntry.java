@@ -0,0 +1,69 @@
+package org.node.view;
+
+import org.node.model.CatalogClass;
+import org.node.model.CatalogMethod;
+import org.node.model.MethodRegistry;
+import java.util.List;
+
+// Row of the node palette. Method labels and signatures are derived on demand,
+// so indexing the whole catalog only costs one small object per entry.
+public class PaletteEntry {
+    private final String name;
+    private final CatalogClass owner;
+    private final CatalogMethod method;
+    private String label;
+
+    private PaletteEntry(String name, CatalogClass owner, CatalogMethod method) {
+        this.name = name;
+        this.owner = owner;
+        this.method = method;
+    }
+
+    public static PaletteEntry forGroup(String name) {
+        return new PaletteEntry(name, null, null);
+    }
+
+    public static PaletteEntry forClass(CatalogClass cls) {
+        return new PaletteEntry(cls.getSimpleName(), cls, null);
+    }
+
+    public static PaletteEntry forMethod(CatalogClass cls, CatalogMethod method) {
+        return new PaletteEntry(method.isConstructor() ? "Create" : method.getName(), cls, method);
+    }
+
+    public boolean isMethod() {
+        return method != null;
+    }
+
+    public String getLabel() {
+        if (label == null) {
+            label = method == null ? name : name + "(" + describeParameters(method) + ")";
+        }
+        return label;
+    }
+
+    public String getSignature() {
+        return method == null ? null : MethodRegistry.signatureOf(owner, method);
+    }
+
+    private static String describeParameters(CatalogMethod method) {
+        StringBuilder params = new StringBuilder();
+        List<String> types = method.getParameterTypeNames();
+        for (int i = 0; i < types.size(); i++) {
+            if (i > 0) params.append(", ");
+            String type = types.get(i);
+            params.append(type.substring(type.lastIndexOf('.') + 1));
+        }
+        return params.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getLabel();
+    }
+
+    // Getters
+    public String getName() { return name; }
+    public CatalogClass getOwner() { return owner; }
+    public CatalogMethod getMethod() { return method; }
+}
@@ -1,29 +1,44 @@
 package org.node.view;
 
+import javafx.css.PseudoClass;
 import javafx.scene.layout.Region;
 import javafx.scene.shape.Circle;
 import org.node.model.Pin;
 
 public class PinView extends Region {
+    private static final PseudoClass CONNECTABLE = PseudoClass.getPseudoClass("connectable");
     private Pin pin;
     private Circle circle;
     private static final double PIN_RADIUS = 5;
 
     public PinView(Pin pin) {
-        this.pin = pin;
         setupPinView();
+        setPin(pin);
     }
 
     private void setupPinView() {
+        // Colour and hover growth come from styles.css
         circle = new Circle(PIN_RADIUS);
-        circle.setFill(pin.getColor());
-        circle.setStroke(javafx.scene.paint.Color.WHITE);
-        circle.setStrokeWidth(1);
+        circle.getStyleClass().add("pin-circle");
         getChildren().add(circle);
+    }
+
+    public void setPin(Pin pin) {
+        if (this.pin != null) {
+            circle.getStyleClass().remove(styleClassOf(this.pin));
+        }
+        this.pin = pin;
+        circle.getStyleClass().add(styleClassOf(pin));
+        setConnectable(false);
+    }
+
+    // Marks a valid end for the wire being dragged
+    public void setConnectable(boolean connectable) {
+        circle.pseudoClassStateChanged(CONNECTABLE, connectable);
+    }
 
-        // Make pin interactive
-        circle.setOnMouseEntered(e -> circle.setRadius(PIN_RADIUS * 1.2));
-        circle.setOnMouseExited(e -> circle.setRadius(PIN_RADIUS));
+    private static String styleClassOf(Pin pin) {
+        return "pin-" + pin.getType().name().toLowerCase(java.util.Locale.ROOT);
     }
 
     public Pin getPin() {
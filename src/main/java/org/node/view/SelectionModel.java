@@ -0,0 +1,157 @@
+package org.node.view;
+
+import org.node.model.Node;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Selection as a bitset over dense node indexes. Every node on the canvas gets an index
+// when added, reused after removal, so select all, invert and rubber-band replacement are
+// word-wide bit operations. Listeners get one call per operation with the bits that
+// flipped and restyle only those nodes, or only their visible ones when that is fewer.
+public class SelectionModel {
+    private final Map<Node, Integer> indexes = new HashMap<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private final Deque<Integer> freeIndexes = new ArrayDeque<>();
+    private final BitSet registered = new BitSet();
+    private final BitSet selected = new BitSet();
+    // Kept alongside the bits so counters read it without a scan
+    private int selectedCount;
+    private final List<Consumer<BitSet>> listeners = new ArrayList<>();
+
+    void register(Node node) {
+        if (indexes.containsKey(node)) return;
+        Integer index = freeIndexes.poll();
+        if (index == null) {
+            index = nodes.size();
+            nodes.add(node);
+        } else {
+            nodes.set(index, node);
+        }
+        indexes.put(node, index);
+        registered.set(index);
+    }
+
+    void unregister(Node node) {
+        Integer index = indexes.remove(node);
+        if (index == null) return;
+        if (selected.get(index)) {
+            BitSet changed = new BitSet();
+            changed.set(index);
+            selected.clear(index);
+            selectedCount--;
+            fire(changed);
+        }
+        registered.clear(index);
+        nodes.set(index, null);
+        freeIndexes.push(index);
+    }
+
+    public boolean isSelected(Node node) {
+        Integer index = indexes.get(node);
+        return index != null && selected.get(index);
+    }
+
+    public void select(Node node) {
+        set(node, true);
+    }
+
+    public void deselect(Node node) {
+        set(node, false);
+    }
+
+    public void toggle(Node node) {
+        set(node, !isSelected(node));
+    }
+
+    private void set(Node node, boolean value) {
+        int index = indexOf(node);
+        if (selected.get(index) == value) return;
+        selected.set(index, value);
+        selectedCount += value ? 1 : -1;
+        BitSet changed = new BitSet();
+        changed.set(index);
+        fire(changed);
+    }
+
+    public void selectOnly(Node node) {
+        BitSet target = new BitSet();
+        target.set(indexOf(node));
+        replace(target);
+    }
+
+    public void selectAll() {
+        replace((BitSet) registered.clone());
+    }
+
+    public void clear() {
+        replace(new BitSet());
+    }
+
+    public void invert() {
+        BitSet target = (BitSet) registered.clone();
+        target.andNot(selected);
+        replace(target);
+    }
+
+    // The selection becomes exactly these nodes, or these plus what was already selected
+    public void selectAll(Collection<Node> nodes, boolean additive) {
+        BitSet target = additive ? (BitSet) selected.clone() : new BitSet();
+        for (Node node : nodes) {
+            target.set(indexOf(node));
+        }
+        replace(target);
+    }
+
+    // Selected set as it stands, for a rubber band to add to
+    BitSet snapshot() {
+        return (BitSet) selected.clone();
+    }
+
+    void replace(BitSet target) {
+        BitSet changed = (BitSet) selected.clone();
+        changed.xor(target);
+        if (changed.isEmpty()) return;
+        selected.xor(changed);
+        // Bulk operations already walk every word, so counting the result adds no order
+        selectedCount = target.cardinality();
+        fire(changed);
+    }
+
+    public void addListener(Consumer<BitSet> listener) {
+        listeners.add(listener);
+    }
+
+    private void fire(BitSet changed) {
+        for (Consumer<BitSet> listener : listeners) {
+            listener.accept(changed);
+        }
+    }
+
+    public List<Node> getSelectedNodes() {
+        List<Node> result = new ArrayList<>(selectedCount);
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            result.add(nodes.get(i));
+        }
+        return result;
+    }
+
+    int indexOf(Node node) {
+        Integer index = indexes.get(node);
+        if (index == null) {
+            throw new IllegalArgumentException("Node '" + node.getTitle() + "' is not on the canvas");
+        }
+        return index;
+    }
+
+    // Getters
+    public int size() { return selectedCount; }
+    public boolean isEmpty() { return selectedCount == 0; }
+    public Node getNode(int index) { return nodes.get(index); }
+}
@@ -0,0 +1,147 @@
+package org.node.view;
+
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.StrokeLineCap;
+import org.node.model.Connection;
+import org.node.model.Pin;
+import org.node.model.QuadTree;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Draws every visible wire in immediate mode on one canvas instead of one
+// CubicCurve node per connection. Wires are stroked as one path per pin type,
+// and hit tests go through a quadtree of curve bounds.
+public class WireLayer extends Canvas {
+    private static final double CURVE_OFFSET = 100;
+    private static final double STROKE_WIDTH = 2;
+    private static final int PICK_SEGMENTS = 16;
+
+    private final Camera camera;
+    private final Map<Connection, double[]> curves = new HashMap<>();
+    private final QuadTree<Connection> index = new QuadTree<>(new Rectangle2D(0, 0, 4096, 4096));
+    private double[] preview;
+    private Color previewColor;
+
+    public WireLayer(Camera camera) {
+        this.camera = camera;
+        setMouseTransparent(true);
+        widthProperty().addListener((observable, oldValue, newValue) -> redraw());
+        heightProperty().addListener((observable, oldValue, newValue) -> redraw());
+    }
+
+    // Endpoints in world coordinates
+    public void update(Connection connection, Point2D start, Point2D end) {
+        double[] curve = {start.getX(), start.getY(), end.getX(), end.getY()};
+        curves.put(connection, curve);
+        index.insert(connection, curveBounds(curve));
+    }
+
+    public void remove(Connection connection) {
+        curves.remove(connection);
+        index.remove(connection);
+    }
+
+    public void setPreview(Point2D start, Point2D end, Color color) {
+        preview = new double[] {start.getX(), start.getY(), end.getX(), end.getY()};
+        previewColor = color;
+    }
+
+    public void clearPreview() {
+        preview = null;
+    }
+
+    public void redraw() {
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.clearRect(0, 0, getWidth(), getHeight());
+        gc.setTransform(camera.getScale(), 0, 0, camera.getScale(), camera.getTranslateX(), camera.getTranslateY());
+        gc.setLineWidth(STROKE_WIDTH);
+        gc.setLineCap(StrokeLineCap.ROUND);
+
+        // One path and one stroke call per colour
+        Map<Pin.PinType, List<Connection>> batches = new EnumMap<>(Pin.PinType.class);
+        index.query(camera.getVisibleWorldArea(getWidth(), getHeight()), connection ->
+            batches.computeIfAbsent(connection.getSourcePin().getType(), type -> new ArrayList<>()).add(connection));
+        for (List<Connection> batch : batches.values()) {
+            gc.setStroke(batch.get(0).getColor());
+            gc.beginPath();
+            for (Connection connection : batch) {
+                appendCurve(gc, curves.get(connection));
+            }
+            gc.stroke();
+        }
+
+        if (preview != null) {
+            gc.setStroke(previewColor);
+            gc.beginPath();
+            appendCurve(gc, preview);
+            gc.stroke();
+        }
+    }
+
+    // Nearest wire within the tolerance (in screen pixels) of a world point
+    public Connection pick(double worldX, double worldY, double tolerance) {
+        double radius = tolerance / camera.getScale();
+        Connection[] nearest = new Connection[1];
+        double[] nearestDistance = {radius};
+        index.query(new Rectangle2D(worldX - radius, worldY - radius, radius * 2, radius * 2), connection -> {
+            double distance = distanceToCurve(curves.get(connection), worldX, worldY);
+            if (distance <= nearestDistance[0]) {
+                nearestDistance[0] = distance;
+                nearest[0] = connection;
+            }
+        });
+        return nearest[0];
+    }
+
+    public int getWireCount() {
+        return curves.size();
+    }
+
+    private static void appendCurve(GraphicsContext gc, double[] curve) {
+        gc.moveTo(curve[0], curve[1]);
+        gc.bezierCurveTo(curve[0] + CURVE_OFFSET, curve[1], curve[2] - CURVE_OFFSET, curve[3], curve[2], curve[3]);
+    }
+
+    // The curve stays inside the hull of its control points
+    private static Rectangle2D curveBounds(double[] curve) {
+        double minX = Math.min(curve[0], curve[2] - CURVE_OFFSET);
+        double maxX = Math.max(curve[0] + CURVE_OFFSET, curve[2]);
+        double minY = Math.min(curve[1], curve[3]);
+        double maxY = Math.max(curve[1], curve[3]);
+        return new Rectangle2D(minX - STROKE_WIDTH, minY - STROKE_WIDTH,
+            maxX - minX + 2 * STROKE_WIDTH, maxY - minY + 2 * STROKE_WIDTH);
+    }
+
+    private static double distanceToCurve(double[] curve, double x, double y) {
+        double best = Double.MAX_VALUE;
+        double previousX = curve[0];
+        double previousY = curve[1];
+        for (int i = 1; i <= PICK_SEGMENTS; i++) {
+            double t = (double) i / PICK_SEGMENTS;
+            double u = 1 - t;
+            double a = u * u * u, b = 3 * u * u * t, c = 3 * u * t * t, d = t * t * t;
+            double pointX = a * curve[0] + b * (curve[0] + CURVE_OFFSET) + c * (curve[2] - CURVE_OFFSET) + d * curve[2];
+            double pointY = a * curve[1] + b * curve[1] + c * curve[3] + d * curve[3];
+            best = Math.min(best, distanceToSegment(x, y, previousX, previousY, pointX, pointY));
+            previousX = pointX;
+            previousY = pointY;
+        }
+        return best;
+    }
+
+    private static double distanceToSegment(double x, double y, double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
+        return Math.hypot(x - (x1 + t * dx), y - (y1 + t * dy));
+    }
+}